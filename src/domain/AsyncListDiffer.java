@@ -0,0 +1,156 @@
+package domain;
+
+import data.MyModel;
+import genericlistview.ChangeSet;
+import genericlistview.ListDiff;
+import utils.Trace;
+import utils.Trace.Subsystem;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces the models of a {@link UseCaseObservableList} with a new snapshot,
+ * for example one pushed by a server, without diffing on the event dispatch
+ * thread. The diff against the current models runs on a background executor
+ * and the result is applied on the event dispatch thread in one step.
+ * <p>
+ * Every submission is tagged with a generation number. A diff made stale by
+ * a newer submission is dropped, whether it is still waiting, running or
+ * about to be applied, so only the latest snapshot is ever shown. If the
+ * models are edited while a diff is running the diff is calculated again
+ * against the edited models, and after {@link #MAX_ATTEMPTS} attempts the
+ * snapshot is applied as a whole new data set. A snapshot holding a model
+ * the validator of the use case rejects is dropped, and the current models
+ * are kept.
+ * <p>
+ * {@link #submit(List)} may be called from any thread.
+ */
+public class AsyncListDiffer {
+
+    private static final String TAG = "AsyncListDiffer" + ": ";
+
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final UseCaseObservableList useCase;
+    private final Executor executor;
+    private final AtomicLong generation;
+
+    /**
+     * Diffs on a single daemon thread owned by this differ.
+     *
+     * @param useCase the use case whose models are replaced.
+     */
+    public AsyncListDiffer(UseCaseObservableList useCase) {
+        this(useCase, newDiffExecutor());
+    }
+
+    /**
+     * @param useCase  the use case whose models are replaced.
+     * @param executor runs the diffs, off the event dispatch thread.
+     */
+    public AsyncListDiffer(UseCaseObservableList useCase,
+                           Executor executor) {
+        this.useCase = useCase;
+        this.executor = executor;
+        generation = new AtomicLong();
+    }
+
+    private static ExecutorService newDiffExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "AsyncListDiffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Replaces the models with the snapshot once the diff has been
+     * calculated, superseding any earlier submission still in progress.
+     *
+     * @param models the new models.
+     * @return the generation of this submission.
+     */
+    public long submit(List<MyModel> models) {
+        var newModels = new ArrayList<>(models);
+        long submitted = generation.incrementAndGet();
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "submit: generation=" + submitted + " models=" + newModels.size());
+
+        if (SwingUtilities.isEventDispatchThread()) {
+            diff(submitted, newModels, 1);
+        } else {
+            SwingUtilities.invokeLater(() -> diff(submitted, newModels, 1));
+        }
+        return submitted;
+    }
+
+    /**
+     * @return the generation of the latest submission.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    private boolean isStale(long submitted) {
+        return submitted != generation.get();
+    }
+
+    // called on the event dispatch thread, where the current models are
+    // read
+    private void diff(long submitted,
+                      List<MyModel> newModels,
+                      int attempt) {
+        if (isStale(submitted)) {
+            return;
+        }
+        if (attempt > MAX_ATTEMPTS) {
+            var changes = new ChangeSet();
+            changes.datasetChanged();
+            apply(submitted, newModels, changes);
+            return;
+        }
+
+        // an immutable version, so it is not copied for the executor
+        List<MyModel> oldModels = useCase.getModels();
+        int baseModificationCount = useCase.getModificationCount();
+
+        executor.execute(() -> {
+            if (isStale(submitted)) {
+                return;
+            }
+            ChangeSet changes = ListDiff.calculate(oldModels, newModels);
+            SwingUtilities.invokeLater(() -> {
+                if (useCase.getModificationCount() != baseModificationCount) {
+                    Trace.log(Subsystem.USE_CASE, TAG, () ->
+                            "diff: models changed during diff, generation=" + submitted +
+                            " attempt=" + attempt);
+                    diff(submitted, newModels, attempt + 1);
+                } else {
+                    apply(submitted, newModels, changes);
+                }
+            });
+        });
+    }
+
+    private void apply(long submitted,
+                       List<MyModel> newModels,
+                       ChangeSet changes) {
+        if (isStale(submitted)) {
+            Trace.log(Subsystem.USE_CASE, TAG, () -> "apply: dropped stale generation=" + submitted);
+            return;
+        }
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "apply: generation=" + submitted);
+        try {
+            useCase.setModels(newModels, changes);
+        } catch (IllegalArgumentException e) {
+            // the validator rejected the snapshot, which has changed nothing
+            Trace.log(Subsystem.USE_CASE, TAG, () -> "apply: generation=" + submitted + " rejected: " + e);
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package domain;
+
+import data.MyModel;
+import genericlistview.ChangeSet;
+import genericlistview.ListDiff;
+import genericlistview.ModelListener;
+import utils.Trace;
+import utils.Trace.Subsystem;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * A variant of {@link UseCaseObservableList} that may be edited from any
+ * thread, for example by import and sync threads pushing thousands of
+ * updates a second.
+ * <p>
+ * Edits are queued and applied in order by a single writer thread, which
+ * drains every edit queued since its last pass in one go. After each pass it
+ * publishes an immutable {@link Snapshot} of the models, in O(1) as the
+ * models are a {@link PersistentVector}, so readers never lock and never see
+ * an edit half made. The changes made in the pass are
+ * merged into a {@link ChangeSet} and handed to the event dispatch thread.
+ * If the event dispatch thread is busy, the batches waiting for it are
+ * merged, so the listeners are sent one batch per tick, in order, however
+ * fast the edits arrive.
+ * <p>
+ * Indices are resolved against the models when the edit is applied, not
+ * when it is queued. An edit whose indices are out of range by then is
+ * dropped.
+ */
+public class ConcurrentUseCaseObservableList {
+
+    private static final String TAG = "ConcurrentUseCaseObservableList" + ": ";
+
+    /**
+     * An immutable version of the models, with the stable id of each.
+     */
+    public static final class Snapshot {
+        private final List<MyModel> models;
+        private final List<Long> ids;
+        private final long version;
+
+        private Snapshot(List<MyModel> models,
+                         List<Long> ids,
+                         long version) {
+            this.models = models;
+            this.ids = ids;
+            this.version = version;
+        }
+
+        public List<MyModel> getModels() {
+            return models;
+        }
+
+        public MyModel getModel(int index) {
+            return models.get(index);
+        }
+
+        public long getItemId(int index) {
+            return ids.get(index);
+        }
+
+        public int getItemCount() {
+            return models.size();
+        }
+
+        /**
+         * @return the number of writer passes that led to this snapshot.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "version=" + version +
+                    ", itemCount=" + models.size() +
+                    '}';
+        }
+    }
+
+    // an edit, applied on the writer thread, recording what it changed
+    @FunctionalInterface
+    private interface Edit {
+        void apply(ChangeSet changes);
+    }
+
+    private final Executor writer;
+    private final Executor notifier;
+    private final Queue<Edit> edits;
+    private final AtomicBoolean isDrainScheduled;
+    private final List<ModelListener> modelListeners;
+
+    // owned by the writer thread, each edit makes a new version, so a
+    // published version is never changed
+    private PersistentVector<MyModel> models;
+    private PersistentVector<Long> ids;
+    private long nextId;
+    private long version;
+
+    // the latest snapshot, ahead of the listeners until they are notified
+    private volatile Snapshot snapshot;
+    // the snapshot the listeners were last notified of
+    private volatile Snapshot notifiedSnapshot;
+
+    // batches waiting for the event dispatch thread, merged into one
+    private final Object deliveryLock = new Object();
+    private ChangeSet undeliveredChanges;
+    private Snapshot undeliveredSnapshot;
+    private boolean isDeliveryScheduled;
+
+    /**
+     * Applies edits on a single daemon thread owned by this list, and
+     * notifies the listeners on the event dispatch thread.
+     */
+    public ConcurrentUseCaseObservableList() {
+        this(newWriterExecutor(), SwingUtilities::invokeLater);
+    }
+
+    /**
+     * @param writer   applies the edits, must run one task at a time in
+     *                 order.
+     * @param notifier notifies the listeners, in order, normally the event
+     *                 dispatch thread.
+     */
+    ConcurrentUseCaseObservableList(Executor writer,
+                                    Executor notifier) {
+        this.writer = writer;
+        this.notifier = notifier;
+        edits = new ConcurrentLinkedQueue<>();
+        isDrainScheduled = new AtomicBoolean();
+        modelListeners = new CopyOnWriteArrayList<>();
+        models = PersistentVector.empty();
+        ids = PersistentVector.empty();
+        undeliveredChanges = new ChangeSet();
+        snapshot = new Snapshot(models, ids, 0);
+        notifiedSnapshot = snapshot;
+    }
+
+    private static Executor newWriterExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "ConcurrentUseCaseObservableList");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+// region edit models
+
+    public void addModel(MyModel model) {
+        Objects.requireNonNull(model, "model");
+        submit(changes -> {
+            int index = models.size();
+            models = models.withAppended(model);
+            ids = ids.withAppended(nextId++);
+            changes.itemsInserted(index, index);
+        });
+    }
+
+    /**
+     * @param index     the index the first model is inserted at.
+     * @param newModels the models to insert.
+     */
+    public void insertModels(int index,
+                             List<MyModel> newModels) {
+        var inserted = List.copyOf(newModels);
+        if (inserted.isEmpty()) {
+            return;
+        }
+        submit(changes -> {
+            if (index < 0 || index > models.size()) {
+                dropped("insertModels", index);
+                return;
+            }
+            models = models.withInserted(index, inserted);
+            ids = ids.withInserted(index, newIds(inserted.size()));
+            changes.itemsInserted(index, index + inserted.size() - 1);
+        });
+    }
+
+    /**
+     * Updates a model from its value when the edit is applied, so
+     * concurrent edits to the same model are not lost.
+     *
+     * @param index  the index of the model.
+     * @param update returns the updated model. The listeners are only
+     *               notified if the result is not equal to the model.
+     */
+    public void updateModel(int index,
+                            UnaryOperator<MyModel> update) {
+        submit(changes -> {
+            if (index < 0 || index >= models.size()) {
+                dropped("updateModel", index);
+                return;
+            }
+            MyModel oldModel = models.get(index);
+            MyModel newModel = Objects.requireNonNull(update.apply(oldModel), "model");
+            if (!newModel.equals(oldModel)) {
+                models = models.withSet(index, newModel);
+                changes.itemsUpdated(index, index);
+            }
+        });
+    }
+
+    /**
+     * @param firstIndex the inclusive index of the first model deleted.
+     * @param lastIndex  the inclusive index of the last model deleted.
+     */
+    public void deleteModels(int firstIndex,
+                             int lastIndex) {
+        submit(changes -> {
+            if (firstIndex < 0 || lastIndex < firstIndex || lastIndex >= models.size()) {
+                dropped("deleteModels", firstIndex);
+                return;
+            }
+            models = models.withRemoved(firstIndex, lastIndex);
+            ids = ids.withRemoved(firstIndex, lastIndex);
+            changes.itemsDeleted(firstIndex, lastIndex);
+        });
+    }
+
+    /**
+     * @param fromIndex the index of the first model before the move.
+     * @param toIndex   the index of the first model after the move.
+     * @param itemCount the number of models to move.
+     */
+    public void moveModels(int fromIndex,
+                           int toIndex,
+                           int itemCount) {
+        submit(changes -> {
+            if (itemCount <= 0 || fromIndex < 0 || toIndex < 0 ||
+                    Math.max(fromIndex, toIndex) + itemCount > models.size()) {
+                dropped("moveModels", fromIndex);
+                return;
+            }
+            models = models.withMoved(fromIndex, toIndex, itemCount);
+            ids = ids.withMoved(fromIndex, toIndex, itemCount);
+            changes.itemsMoved(fromIndex, toIndex, itemCount);
+        });
+    }
+
+    /**
+     * Replaces the models. The diff against the current models is calculated
+     * on the writer thread, so the listeners are notified of only the models
+     * that changed, and the models that survive keep their ids.
+     *
+     * @param newModels the new models.
+     */
+    public void setModels(List<MyModel> newModels) {
+        var replacement = List.copyOf(newModels);
+        submit(changes -> {
+            ChangeSet diff = ListDiff.calculate(models, replacement);
+            var updatedIds = new ArrayList<>(ids);
+            diff.dispatchTo(new IdUpdater(updatedIds, replacement.size()));
+            models = PersistentVector.of(replacement);
+            ids = PersistentVector.of(updatedIds);
+            changes.addAll(diff);
+        });
+    }
+// endregion edit models
+
+// region writer
+    private void submit(Edit edit) {
+        edits.add(edit);
+        if (isDrainScheduled.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    // applies every queued edit, then publishes the result
+    private void drain() {
+        // cleared first, so an edit queued during the pass schedules another
+        isDrainScheduled.set(false);
+        var changes = new ChangeSet();
+        Edit edit;
+        while ((edit = edits.poll()) != null) {
+            try {
+                edit.apply(changes);
+            } catch (RuntimeException e) {
+                // edits check their indices before changing anything, so a
+                // failed edit has changed nothing
+                Trace.log(Subsystem.USE_CASE, TAG, () -> "drain: edit failed: " + e);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        var published = new Snapshot(models, ids, ++version);
+        snapshot = published;
+        synchronized (deliveryLock) {
+            undeliveredChanges.addAll(changes);
+            undeliveredSnapshot = published;
+            if (isDeliveryScheduled) {
+                return;
+            }
+            isDeliveryScheduled = true;
+        }
+        notifier.execute(this::deliver);
+    }
+
+    // notifies the listeners of every batch published since the last
+    // delivery
+    private void deliver() {
+        ChangeSet changes;
+        Snapshot delivered;
+        synchronized (deliveryLock) {
+            changes = undeliveredChanges;
+            delivered = undeliveredSnapshot;
+            undeliveredChanges = new ChangeSet();
+            isDeliveryScheduled = false;
+        }
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "deliver: " + delivered + " " + changes);
+
+        notifiedSnapshot = delivered;
+        for (ModelListener listener : modelListeners) {
+            listener.notifyChanges(changes);
+        }
+    }
+
+    private void dropped(String edit,
+                         int index) {
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                edit + ": dropped, index=" + index + " is out of range of " + models.size() + " models");
+    }
+
+    private List<Long> newIds(int count) {
+        var newIds = new ArrayList<Long>(count);
+        for (int i = 0; i < count; i++) {
+            newIds.add(nextId++);
+        }
+        return newIds;
+    }
+
+    private static <T> void move(List<T> list,
+                                 int fromIndex,
+                                 int toIndex,
+                                 int itemCount) {
+        var moved = new ArrayList<>(list.subList(fromIndex, fromIndex + itemCount));
+        list.subList(fromIndex, fromIndex + itemCount).clear();
+        list.addAll(toIndex, moved);
+    }
+
+    // replays a diff against a copy of the ids, so the models that survive
+    // keep their ids
+    private class IdUpdater
+            implements ModelListener {
+
+        private final List<Long> updatedIds;
+        private final int itemCount;
+
+        private IdUpdater(List<Long> updatedIds,
+                          int itemCount) {
+            this.updatedIds = updatedIds;
+            this.itemCount = itemCount;
+        }
+
+        @Override
+        public void notifyDatasetChanged() {
+            updatedIds.clear();
+            updatedIds.addAll(newIds(itemCount));
+        }
+
+        @Override
+        public void notifyDataStructureChanged() {
+            notifyDatasetChanged();
+        }
+
+        @Override
+        public void notifyItemsInserted(int firstIndex,
+                                        int lastIndex) {
+            updatedIds.addAll(firstIndex, newIds(lastIndex - firstIndex + 1));
+        }
+
+        @Override
+        public void notifyItemsUpdated(int firstIndex,
+                                       int lastIndex) {
+        }
+
+        @Override
+        public void notifyItemUpdated(int index) {
+        }
+
+        @Override
+        public void notifyItemsDeleted(int firstIndex,
+                                       int lastIndex) {
+            updatedIds.subList(firstIndex, lastIndex + 1).clear();
+        }
+
+        @Override
+        public void notifyItemsMoved(int fromIndex,
+                                     int toIndex,
+                                     int itemCount) {
+            move(updatedIds, fromIndex, toIndex, itemCount);
+        }
+    }
+// endregion writer
+
+// region read models
+
+    /**
+     * @return the latest models, on any thread. May be ahead of what the
+     * listeners have been notified of.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return the models the listeners were last notified of, so a listener
+     * reading them on the event dispatch thread sees the models its
+     * notifications describe.
+     */
+    public Snapshot getNotifiedSnapshot() {
+        return notifiedSnapshot;
+    }
+
+    public List<MyModel> getModels() {
+        return notifiedSnapshot.getModels();
+    }
+
+    public MyModel getModel(int index) {
+        return notifiedSnapshot.getModel(index);
+    }
+
+    public long getItemId(int index) {
+        return notifiedSnapshot.getItemId(index);
+    }
+
+    public int getItemCount() {
+        return notifiedSnapshot.getItemCount();
+    }
+// endregion read models
+
+    /**
+     * @param listener notified on the event dispatch thread with one merged
+     *                 batch of changes per delivery.
+     */
+    public void addModelListener(ModelListener listener) {
+        modelListeners.add(listener);
+    }
+
+    public void removeModelListener(ModelListener listener) {
+        modelListeners.remove(listener);
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentUseCaseObservableList{" +
+                "snapshot=" + snapshot +
+                ", notifiedSnapshot=" + notifiedSnapshot +
+                ", listeners=" + modelListeners.size() +
+                '}';
+    }
+}
@@ -0,0 +1,312 @@
+package domain;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list held in a 32 way trie, where every edit returns a new
+ * version that shares all but the O(log n) nodes on the path to the edited
+ * element with the version it was made from. Versions are therefore cheap to
+ * keep, and handing one out is O(1): a reader holding a version sees it
+ * unchanged however the list is edited afterwards.
+ * <p>
+ * Reading, replacing and appending an element are O(log n), which with 32
+ * children per node is at most seven levels for any int sized list.
+ * Inserting, removing or moving elements anywhere but the end rebuilds the
+ * trie in O(n), in one pass.
+ * <p>
+ * The list is immutable, so is safe to share between threads. The mutating
+ * methods of {@link List} throw {@link UnsupportedOperationException}.
+ *
+ * @param <T> the type of the elements.
+ */
+public final class PersistentVector<T>
+        extends AbstractList<T>
+        implements RandomAccess {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "PersistentVector" + ": ";
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(new Object[0], 0, 0);
+
+    /*
+    Nodes are arrays of at most 32 children, or of elements at the bottom
+    level. Every node is full except those on the path to the last element,
+    which are only as long as they need to be.
+     */
+    private final Object[] root;
+    // the bit shift of the index at the root, zero when the root holds the
+    // elements
+    private final int shift;
+    private final int size;
+
+    private PersistentVector(Object[] root,
+                             int shift,
+                             int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    /**
+     * @param elements the elements, in order.
+     * @return a vector of the elements, built in O(n).
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> of(Collection<? extends T> elements) {
+        if (elements instanceof PersistentVector) {
+            return (PersistentVector<T>) elements;
+        }
+        Object[] array = elements.toArray();
+        return build(array, array.length);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index, size);
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return (T) node[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index   the index of the element to replace.
+     * @param element the new element.
+     * @return a version with the element replaced, in O(log n).
+     */
+    public PersistentVector<T> withSet(int index,
+                                       T element) {
+        checkIndex(index, size);
+        return new PersistentVector<>(setIn(root, shift, index, element), shift, size);
+    }
+
+    /**
+     * @param element the element to add to the end.
+     * @return a version with the element appended, in O(log n).
+     */
+    public PersistentVector<T> withAppended(T element) {
+        if (size == capacity(shift)) {
+            Object[] newRoot = {root, newPath(shift, element)};
+            return new PersistentVector<>(newRoot, shift + BITS, size + 1);
+        }
+        return new PersistentVector<>(appendIn(root, shift, size, element), shift, size + 1);
+    }
+
+    /**
+     * @param index    the index the first element is inserted at.
+     * @param elements the elements to insert.
+     * @return a version with the elements inserted. A few elements are
+     * appended at the end in O(k log n), otherwise the trie is rebuilt in
+     * O(n + k).
+     */
+    public PersistentVector<T> withInserted(int index,
+                                            Collection<? extends T> elements) {
+        checkIndex(index, size + 1);
+        if (elements.isEmpty()) {
+            return this;
+        }
+        // each append copies a path of up to 32 wide nodes, so many are
+        // cheaper built in one pass
+        if (index == size && (long) elements.size() * WIDTH < size) {
+            PersistentVector<T> appended = this;
+            for (T element : elements) {
+                appended = appended.withAppended(element);
+            }
+            return appended;
+        }
+        Object[] inserted = elements.toArray();
+        Object[] array = new Object[size + inserted.length];
+        copyTo(0, index, array, 0);
+        System.arraycopy(inserted, 0, array, index, inserted.length);
+        copyTo(index, size, array, index + inserted.length);
+        return build(array, array.length);
+    }
+
+    /**
+     * @param firstIndex the inclusive index of the first element removed.
+     * @param lastIndex  the inclusive index of the last element removed.
+     * @return a version without the elements, rebuilt in O(n).
+     */
+    public PersistentVector<T> withRemoved(int firstIndex,
+                                           int lastIndex) {
+        checkIndex(firstIndex, size);
+        checkIndex(lastIndex, size);
+        if (lastIndex < firstIndex) {
+            throw new IllegalArgumentException(
+                    "invalid range firstIndex=" + firstIndex + " lastIndex=" + lastIndex);
+        }
+        Object[] array = new Object[size - (lastIndex - firstIndex + 1)];
+        copyTo(0, firstIndex, array, 0);
+        copyTo(lastIndex + 1, size, array, firstIndex);
+        return build(array, array.length);
+    }
+
+    /**
+     * @param indices the indices of the elements to remove.
+     * @return a version without the elements, compacted and rebuilt in one
+     * O(n) pass.
+     */
+    public PersistentVector<T> withRemovedAll(BitSet indices) {
+        if (indices.isEmpty()) {
+            return this;
+        }
+        if (indices.length() > size) {
+            throw new IndexOutOfBoundsException("index=" + (indices.length() - 1) + " size=" + size);
+        }
+        Object[] array = new Object[size - indices.cardinality()];
+        int kept = 0;
+        for (int first = indices.nextClearBit(0); first < size; ) {
+            int next = indices.nextSetBit(first);
+            int end = next < 0 ? size : next;
+            copyTo(first, end, array, kept);
+            kept += end - first;
+            first = indices.nextClearBit(end);
+        }
+        return build(array, array.length);
+    }
+
+    /**
+     * @param fromIndex the index of the first element before the move.
+     * @param toIndex   the index of the first element after the move.
+     * @param count     the number of elements to move.
+     * @return a version with the elements moved, rebuilt in O(n).
+     */
+    public PersistentVector<T> withMoved(int fromIndex,
+                                         int toIndex,
+                                         int count) {
+        if (count <= 0 || fromIndex < 0 || toIndex < 0 || Math.max(fromIndex, toIndex) + count > size) {
+            throw new IndexOutOfBoundsException(
+                    "fromIndex=" + fromIndex + " toIndex=" + toIndex + " count=" + count + " size=" + size);
+        }
+        Object[] array = toArray();
+        Object[] moved = Arrays.copyOfRange(array, fromIndex, fromIndex + count);
+        if (fromIndex < toIndex) {
+            System.arraycopy(array, fromIndex + count, array, fromIndex, toIndex - fromIndex);
+        } else {
+            System.arraycopy(array, toIndex, array, toIndex + count, fromIndex - toIndex);
+        }
+        System.arraycopy(moved, 0, array, toIndex, count);
+        return build(array, array.length);
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        copyTo(0, size, array, 0);
+        return array;
+    }
+
+    // copies the elements from the first index to the end index a leaf at a
+    // time
+    private void copyTo(int fromIndex,
+                        int toIndex,
+                        Object[] array,
+                        int offset) {
+        int index = fromIndex;
+        while (index < toIndex) {
+            Object[] leaf = leafFor(index);
+            int start = index & MASK;
+            int count = Math.min(leaf.length - start, toIndex - index);
+            System.arraycopy(leaf, start, array, offset + index - fromIndex, count);
+            index += count;
+        }
+    }
+
+    private Object[] leafFor(int index) {
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    // builds the trie bottom up, packing every node full but the last
+    private static <T> PersistentVector<T> build(Object[] elements,
+                                                 int size) {
+        if (size == 0) {
+            return empty();
+        }
+        Object[] nodes = chunk(elements, size);
+        int shift = 0;
+        while (nodes.length > 1) {
+            nodes = chunk(nodes, nodes.length);
+            shift += BITS;
+        }
+        return new PersistentVector<>((Object[]) nodes[0], shift, size);
+    }
+
+    // groups the children into nodes of at most 32
+    private static Object[] chunk(Object[] children,
+                                  int count) {
+        var nodes = new Object[(count + MASK) / WIDTH];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = Arrays.copyOfRange(children, i * WIDTH, Math.min(count, (i + 1) * WIDTH));
+        }
+        return nodes;
+    }
+
+    private static Object[] setIn(Object[] node,
+                                  int level,
+                                  int index,
+                                  Object element) {
+        Object[] copy = node.clone();
+        int child = (index >>> level) & MASK;
+        copy[child] = level == 0
+                ? element
+                : setIn((Object[]) node[child], level - BITS, index, element);
+        return copy;
+    }
+
+    private static Object[] appendIn(Object[] node,
+                                     int level,
+                                     int index,
+                                     Object element) {
+        int child = (index >>> level) & MASK;
+        if (level > 0 && child < node.length) {
+            Object[] copy = node.clone();
+            copy[child] = appendIn((Object[]) node[child], level - BITS, index, element);
+            return copy;
+        }
+        Object[] copy = Arrays.copyOf(node, child + 1);
+        copy[child] = level == 0 ? element : newPath(level - BITS, element);
+        return copy;
+    }
+
+    private static Object[] newPath(int level,
+                                    Object element) {
+        return new Object[]{level == 0 ? element : newPath(level - BITS, element)};
+    }
+
+    // the number of elements a trie of the shift holds
+    private static long capacity(int shift) {
+        return 1L << (shift + BITS);
+    }
+
+    private static void checkIndex(int index,
+                                   int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package domain;
 
 import data.MyModel;
+import genericlistview.ChangeSet;
+import genericlistview.CoalescingModelDispatcher;
+import genericlistview.ListDiff;
 import genericlistview.ModelListener;
+import genericlistview.ModelListenerAdapter;
+import utils.Trace;
+import utils.Trace.Subsystem;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.BitSet;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Represents a single source of truth for the data models.
@@ -16,7 +24,6 @@ public class UseCaseObservableList
         FieldChangedListener {
 
     private static final String TAG = "UseCaseObservableList" + ": ";
-    private final boolean isLogging = true;
 
     /**
      * Used by components to identify data fields/components etc. in the
@@ -25,16 +32,33 @@ public class UseCaseObservableList
     public enum FieldName {
         FIRST_NAME,
         LAST_NAME,
-        AGE
+        AGE,
+        MEMBER
     }
 
-    // a list of listeners interested in changes to the models
-    private final List<ModelListener> modelListeners;
-    // the source data
-    private final List<MyModel> models = new ArrayList<>();
+    // the listeners interested in changes to the models, notified once per
+    // event dispatch thread tick with the merged changes
+    private final CoalescingModelDispatcher modelListeners;
+    // the source data, each edit replaces it with a new version so a
+    // version handed out never changes
+    private PersistentVector<MyModel> models = PersistentVector.empty();
+    // a stable id for each model, kept in step with the models so a model
+    // keeps its id as it is moved, or as models around it come and go
+    private PersistentVector<Long> ids = PersistentVector.empty();
+    private long nextId;
+    // incremented whenever the listeners are notified of a change
+    private int modificationCount;
+    // rejects invalid models, null if every model is valid
+    private Predicate<? super MyModel> validator;
+    // the changes made in the open transaction, null if there is none
+    private ChangeSet transactionChanges;
+    private ModelListener transactionRecorder;
+    // the versions to restore if the open transaction is rolled back
+    private PersistentVector<MyModel> transactionModels;
+    private PersistentVector<Long> transactionIds;
 
     public UseCaseObservableList() {
-        modelListeners = new ArrayList<>();
+        modelListeners = new CoalescingModelDispatcher();
     }
 
 // region update model
@@ -78,8 +102,8 @@ public class UseCaseObservableList
                     oldModel.getAge(),
                     oldModel.isMember()
             );
-            models.set(index, updatedModel);
-            notifyItemUpdated(index);
+            models = models.withSet(index, validated(updatedModel));
+            notifyItemUpdated(index, EnumSet.of(FieldName.FIRST_NAME));
         }
     }
 
@@ -98,9 +122,9 @@ public class UseCaseObservableList
                     oldModel.getAge(),
                     oldModel.isMember()
             );
-            models.set(index, updatedModel);
+            models = models.withSet(index, validated(updatedModel));
 
-            notifyItemUpdated(index);
+            notifyItemUpdated(index, EnumSet.of(FieldName.LAST_NAME));
         }
     }
 
@@ -120,8 +144,8 @@ public class UseCaseObservableList
                     age.isEmpty() ? 0 : Integer.parseInt(age),
                     oldModel.isMember()
             );
-            models.set(index, updatedModel);
-            notifyItemUpdated(index);
+            models = models.withSet(index, validated(updatedModel));
+            notifyItemUpdated(index, EnumSet.of(FieldName.AGE));
         }
     }
 
@@ -130,9 +154,8 @@ public class UseCaseObservableList
         var oldModel = (MyModel) models.get(index);
         boolean addMember = !oldModel.isMember();
 
-        if (isLogging) System.out.println(
-                TAG + "addMembership: " + " for model:" + oldModel + " addMember=" + addMember
-        );
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "addMembership: " + " for model:" + oldModel + " addMember=" + addMember);
 
         if (addMember) {
             var updatedModel = new MyModel(
@@ -141,9 +164,9 @@ public class UseCaseObservableList
                     oldModel.getAge(),
                     true
             );
-            models.set(index, updatedModel);
+            models = models.withSet(index, validated(updatedModel));
 
-            notifyItemUpdated(index);
+            notifyItemUpdated(index, EnumSet.of(FieldName.MEMBER));
         }
     }
 
@@ -152,11 +175,10 @@ public class UseCaseObservableList
         var oldModel = (MyModel) models.get(index);
         boolean removeMember = oldModel.isMember();
 
-        if (isLogging) System.out.println(
-                TAG + "removeMembership: "
-                        + " for model:" + oldModel
-                        + " removeMember=" + removeMember
-        );
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "removeMembership: "
+                + " for model:" + oldModel
+                + " removeMember=" + removeMember);
 
         if (removeMember) {
             var updatedModel = new MyModel(
@@ -165,8 +187,8 @@ public class UseCaseObservableList
                     oldModel.getAge(),
                     false
             );
-            models.set(index, updatedModel);
-            notifyItemUpdated(index);
+            models = models.withSet(index, validated(updatedModel));
+            notifyItemUpdated(index, EnumSet.of(FieldName.MEMBER));
         }
     }
 
@@ -200,7 +222,8 @@ public class UseCaseObservableList
     public void updateModel(int index,
                             MyModel updatedModel) {
 
-        if (isLogging) System.out.println(TAG + "updateModel: index=" + index +
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "updateModel: index=" + index +
                 " updatedModel=" + updatedModel +
                 " This method of updating is currently turned off!");
         // edge case index is out of range
@@ -234,18 +257,14 @@ public class UseCaseObservableList
     public void notifyItemsUpdated(int firstIndex,
                                    int lastIndex) {
 
-        if (isLogging) {
-            System.out.println(TAG
-                    + "notifyItemsUpdated:="
-                    + " from:" + models.get(firstIndex)
-                    + " to:" + lastIndex +
-                    " there are currently:" + modelListeners.size() + " model listeners to update."
-            );
-        }
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "notifyItemsUpdated:="
+                + " from:" + models.get(firstIndex)
+                + " to:" + lastIndex +
+                " there are currently:" + modelListeners.getListenerCount() + " model listeners to update.");
 
-        modelListeners.forEach(listener ->
-                listener.notifyItemsUpdated(firstIndex, lastIndex)
-        );
+        modificationCount++;
+        changeSink().notifyItemsUpdated(firstIndex, lastIndex);
     }
 
     /**
@@ -253,116 +272,425 @@ public class UseCaseObservableList
      * {@link #notifyItemsUpdated(int, int)}
      */
     public void notifyItemUpdated(int index) {
-        if (isLogging) {
-            System.out.println(
-                    TAG + "notifyItemUpdated: there are: " + modelListeners.size() + " to update"
-            );
-        }
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "notifyItemUpdated: there are: " + modelListeners.getListenerCount() + " to update");
 
-        modelListeners.forEach(listener -> listener.notifyItemUpdated(index));
+        modificationCount++;
+        changeSink().notifyItemUpdated(index);
+    }
+
+    /**
+     * Implements {@link ModelListener}. Notifies a single model was updated,
+     * with the payload describing what changed.
+     *
+     * @param index   the index of the updated model.
+     * @param payload the set of {@link FieldName}s that changed.
+     */
+    @Override
+    public void notifyItemUpdated(int index,
+                                  Object payload) {
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "notifyItemUpdated: index=" + index + " payload=" + payload +
+                " there are: " + modelListeners.getListenerCount() + " to update");
+
+        modificationCount++;
+        changeSink().notifyItemUpdated(index, payload);
     }
 // endregion update model
 
+// region transactions
+
+    /**
+     * Applies the edits as one transaction. The listeners are sent a single
+     * merged batch of changes when the edits complete. If an edit throws,
+     * for example because the validator rejected a model, the models are
+     * restored as they were and the listeners are sent nothing. The
+     * transaction never outlives the call, so the listeners are never left
+     * behind models changed on an earlier event.
+     *
+     * @param edits the edits, made through the methods of this use case.
+     * @throws RuntimeException whatever the edits threw, after rolling back.
+     * @throws Error             whatever the edits threw, after rolling back.
+     */
+    public void runInTransaction(Runnable edits) {
+        beginTransaction();
+        boolean isCompleted = false;
+        try {
+            edits.run();
+            isCompleted = true;
+        } finally {
+            // an Error is rolled back too, so no transaction is left open to
+            // swallow the later edits
+            if (!isCompleted) {
+                rollbackTransaction();
+            }
+        }
+        commitTransaction();
+    }
+
+    // collects the changes made by the following edits, rather than
+    // notifying the listeners of each. The versions of the models are kept
+    // in O(1), so the transaction can be rolled back.
+    private void beginTransaction() {
+        if (transactionChanges != null) {
+            throw new IllegalStateException("a transaction is already open");
+        }
+        transactionChanges = new ChangeSet();
+        transactionRecorder = transactionChanges.asModelListener();
+        transactionModels = models;
+        transactionIds = ids;
+    }
+
+    // sends the listeners every change made in the transaction as one
+    // merged batch, with its indices adjusted for each other
+    private void commitTransaction() {
+        ChangeSet changes = endTransaction();
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "commitTransaction: " + changes);
+        if (!changes.isEmpty()) {
+            modelListeners.notifyChanges(changes);
+        }
+    }
+
+    // restores the models and their ids as they were when the transaction
+    // began, the listeners are never told of its changes
+    private void rollbackTransaction() {
+        PersistentVector<MyModel> restoredModels = transactionModels;
+        PersistentVector<Long> restoredIds = transactionIds;
+        ChangeSet changes = endTransaction();
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "rollbackTransaction: " + changes);
+        models = restoredModels;
+        ids = restoredIds;
+        modificationCount++;
+    }
+
+    public boolean isInTransaction() {
+        return transactionChanges != null;
+    }
+
+    private ChangeSet endTransaction() {
+        if (transactionChanges == null) {
+            throw new IllegalStateException("no transaction is open");
+        }
+        ChangeSet changes = transactionChanges;
+        transactionChanges = null;
+        transactionRecorder = null;
+        transactionModels = null;
+        transactionIds = null;
+        return changes;
+    }
+
+    // the listeners, or the changes of the open transaction
+    private ModelListener changeSink() {
+        return transactionRecorder != null ? transactionRecorder : modelListeners;
+    }
+
+    /**
+     * @param validator rejects models that may not be stored, or null to
+     *                  accept every model. An edit storing a rejected model
+     *                  throws {@link IllegalArgumentException} before
+     *                  changing anything, and rolls back the open
+     *                  transaction if made through
+     *                  {@link #runInTransaction(Runnable)}.
+     */
+    public void setValidator(Predicate<? super MyModel> validator) {
+        this.validator = validator;
+    }
+
+    private MyModel validated(MyModel model) {
+        if (validator != null && !validator.test(model)) {
+            throw new IllegalArgumentException("model rejected by the validator: " + model);
+        }
+        return model;
+    }
+// endregion transactions
+
     // region insert member
     public void addNewMember() {
         int index = models.size();
 
-        if (isLogging) {
-            System.out.println(TAG + "addNewMember: index=" + index);
-        }
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "addNewMember: index=" + index);
 
-        models.add(new MyModel());
+        models = models.withAppended(validated(new MyModel()));
+        ids = ids.withAppended(nextId++);
         notifyItemsInserted(index, index);
     }
 
-    private void insertModels(List<MyModel> models,
-                              int index) {
-
-        if (isLogging) {
-            System.out.println(TAG
-                    + "insertModels: "
-                    + " inserting models=" + models +
-                    " at index=" + index
-            );
+    /**
+     * Inserts the models in one pass, notifying the listeners of a single
+     * range.
+     *
+     * @param models the models to insert.
+     * @param index  the index the first model is inserted at.
+     */
+    public void insertModels(List<MyModel> models,
+                             int index) {
+        if (index < 0 || index > this.models.size()) {
+            throw new IndexOutOfBoundsException("index=" + index + " itemCount=" + this.models.size());
         }
+        if (models.isEmpty()) {
+            return;
+        }
+
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "insertModels: "
+                + " inserting " + models.size() + " models" +
+                " at index=" + index);
 
-        this.models.addAll(index, models);
+        models.forEach(this::validated);
+        this.models = this.models.withInserted(index, models);
+        ids = ids.withInserted(index, newIds(models.size()));
         notifyItemsInserted(index, index + models.size() - 1);
     }
 
+    /**
+     * Appends the models in one pass, notifying the listeners of a single
+     * range.
+     *
+     * @param models the models to append.
+     */
+    public void addModels(List<MyModel> models) {
+        insertModels(models, this.models.size());
+    }
+
     /**
      * Implements {@link ModelListener}
      */
     public void notifyItemsInserted(int firstIndex,
                                     int lastIndex) {
-        if (isLogging) {
-            System.out.println(TAG + "notifyItemsInserted:"
-                    + " from index:" + firstIndex
-                    + " to index:" + lastIndex
-                    + " sending to " + modelListeners.size() + " listeners");
-        }
-
-        modelListeners.forEach(listener ->
-                listener.notifyItemsInserted(firstIndex, lastIndex)
-        );
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "notifyItemsInserted:"
+                + " from index:" + firstIndex
+                + " to index:" + lastIndex
+                + " sending to " + modelListeners.getListenerCount() + " listeners");
+
+        modificationCount++;
+        changeSink().notifyItemsInserted(firstIndex, lastIndex);
     }
 // endregion insert member
 
     // region delete member
     public void deleteModel(int index) {
-        if (isLogging) {
-            System.out.println(TAG
-                    + "deleteModel:" + " at index=" + index
-            );
-        }
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "deleteModel:" + " at index=" + index);
 
-        models.remove(index);
+        models = models.withRemoved(index, index);
+        ids = ids.withRemoved(index, index);
         notifyItemsDeleted(index, index);
     }
 
+    /**
+     * Deletes a range of models in one pass, notifying the listeners of a
+     * single range.
+     *
+     * @param firstIndex the inclusive index of the first model deleted.
+     * @param lastIndex  the inclusive index of the last model deleted.
+     */
+    public void deleteModels(int firstIndex,
+                             int lastIndex) {
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "deleteModels: firstIndex=" + firstIndex + " lastIndex=" + lastIndex);
+
+        models = models.withRemoved(firstIndex, lastIndex);
+        ids = ids.withRemoved(firstIndex, lastIndex);
+        notifyItemsDeleted(firstIndex, lastIndex);
+    }
+
+    /**
+     * Deletes every model matching the filter in a single compaction pass.
+     * The listeners are notified of each contiguous run of deleted models,
+     * highest first, so each range is valid as it arrives.
+     *
+     * @param filter true for the models to delete.
+     * @return the number of models deleted.
+     */
+    public int removeIf(Predicate<? super MyModel> filter) {
+        var removed = new BitSet(models.size());
+        for (int index = 0; index < models.size(); index++) {
+            if (filter.test(models.get(index))) {
+                removed.set(index);
+            }
+        }
+        int removedCount = removed.cardinality();
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "removeIf: removing " + removedCount + " models");
+        if (removedCount == 0) {
+            return 0;
+        }
+
+        models = models.withRemovedAll(removed);
+        ids = ids.withRemovedAll(removed);
+        for (int last = removed.length() - 1; last >= 0; ) {
+            int first = removed.previousClearBit(last) + 1;
+            notifyItemsDeleted(first, last);
+            last = removed.previousSetBit(first - 1);
+        }
+        return removedCount;
+    }
+
     /**
      * Implements {@link ModelListener}
      */
     public void notifyItemsDeleted(int firstIndex,
                                    int lastIndex) {
 
-        if (isLogging) {
-            System.out.println(TAG + "notifyItemsDeleted: "
-                    + "firstIndex=" + firstIndex
-                    + " lastIndex=" + lastIndex
-                    + " notifying " + modelListeners.size() + " listeners."
-            );
-        }
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "notifyItemsDeleted: "
+                + "firstIndex=" + firstIndex
+                + " lastIndex=" + lastIndex
+                + " notifying " + modelListeners.getListenerCount() + " listeners.");
 
-        modelListeners.forEach(listener ->
-                listener.notifyItemsDeleted(firstIndex, lastIndex)
-        );
+        modificationCount++;
+        changeSink().notifyItemsDeleted(firstIndex, lastIndex);
     }
 // endregion delete member
 
+    // region move member
+
+    /**
+     * Moves a range of models, for example when a row is dragged to a new
+     * position.
+     *
+     * @param fromIndex the index of the first model before the move.
+     * @param toIndex   the index of the first model after the move.
+     * @param itemCount the number of models to move.
+     */
+    public void moveModels(int fromIndex,
+                           int toIndex,
+                           int itemCount) {
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "moveModels: fromIndex=" + fromIndex +
+                " toIndex=" + toIndex +
+                " itemCount=" + itemCount);
+
+        models = models.withMoved(fromIndex, toIndex, itemCount);
+        ids = ids.withMoved(fromIndex, toIndex, itemCount);
+        notifyItemsMoved(fromIndex, toIndex, itemCount);
+    }
+
     /**
-     * Modifiable operations are blocked to the requester as, if an external
-     * source performs any mutation, observers will not be notified. Although
-     * this function returns an unmodifiable list, it will mutate, as this
-     * class performs actions on the underlying observable list. This is
-     * because {@link Collections#unmodifiableList} returns a 'window' to the
-     * underlying list and blocks any modifiable operations.
+     * Implements {@link ModelListener}
+     */
+    @Override
+    public void notifyItemsMoved(int fromIndex,
+                                 int toIndex,
+                                 int itemCount) {
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "notifyItemsMoved:"
+                + " fromIndex=" + fromIndex
+                + " toIndex=" + toIndex
+                + " itemCount=" + itemCount
+                + " notifying " + modelListeners.getListenerCount() + " listeners.");
+
+        modificationCount++;
+        changeSink().notifyItemsMoved(fromIndex, toIndex, itemCount);
+    }
+// endregion move member
+
+    /**
+     * Returns the current version of the models in O(1). The version is
+     * immutable and never changes, however the models are edited after it
+     * was returned, so it can be read for as long as needed, on any thread,
+     * without copying it. Call again for the latest version.
      *
-     * @return An unmodifiable set in order to keep the ability to mutate data
-     * within this class.
+     * @return an immutable version of the models.
+     * @see PersistentVector
      */
     public List<MyModel> getModels() {
 //        if (isLogging) System.out.println(TAG + "getModels: " + models);
-        return Collections.unmodifiableList(models);
+        return models;
     }
 
+    /**
+     * Replaces the models, notifying the listeners of only the models that
+     * were inserted, deleted, moved or updated, so a refresh that changes a
+     * few models only repaints those rows.
+     *
+     * @param models the new models.
+     * @see ListDiff
+     */
     public void setModels(List<MyModel> models) {
-        if (isLogging) {
-            System.out.println(TAG + "setModels: " + models);
+        var newModels = PersistentVector.<MyModel>of(models);
+        newModels.forEach(this::validated);
+        replaceModels(newModels, ListDiff.calculate(this.models, newModels));
+    }
+
+    /**
+     * Replaces the models in one step with a diff that has already been
+     * calculated against the current models, see {@link AsyncListDiffer}.
+     *
+     * @param models  the new models.
+     * @param changes the changes that turn the current models into the new
+     *                models.
+     * @throws IllegalArgumentException if the validator rejects any of the
+     *                                  models, before changing anything.
+     */
+    void setModels(List<MyModel> models,
+                   ChangeSet changes) {
+        var newModels = PersistentVector.<MyModel>of(models);
+        newModels.forEach(this::validated);
+        replaceModels(newModels, changes);
+    }
+
+    private void replaceModels(PersistentVector<MyModel> models,
+                               ChangeSet changes) {
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "setModels: " + models.size() + " models " + changes);
+        this.models = models;
+        changes.dispatchTo(new ItemIdUpdater());
+        modificationCount++;
+        changeSink().notifyChanges(changes);
+    }
+
+    /**
+     * @param index the index of the model.
+     * @return an id that stays with the model at the index while it is moved,
+     * and while models are inserted or deleted around it.
+     */
+    public long getItemId(int index) {
+        return ids.get(index);
+    }
+
+    private List<Long> newIds(int count) {
+        var newIds = new ArrayList<Long>(count);
+        for (int i = 0; i < count; i++) {
+            newIds.add(nextId++);
         }
-        this.models.clear();
-        this.models.addAll(models);
-        notifyDatasetChanged();
+        return newIds;
+    }
+
+    // replays a diff against the ids, so the models that survived a call to
+    // setModels keep their ids
+    private class ItemIdUpdater
+            extends ModelListenerAdapter {
+
+        @Override
+        public void notifyDatasetChanged() {
+            ids = PersistentVector.of(newIds(models.size()));
+        }
+
+        @Override
+        public void notifyItemsInserted(int firstIndex,
+                                        int lastIndex) {
+            ids = ids.withInserted(firstIndex, newIds(lastIndex - firstIndex + 1));
+        }
+
+        @Override
+        public void notifyItemsDeleted(int firstIndex,
+                                       int lastIndex) {
+            ids = ids.withRemoved(firstIndex, lastIndex);
+        }
+
+        @Override
+        public void notifyItemsMoved(int fromIndex,
+                                     int toIndex,
+                                     int itemCount) {
+            ids = ids.withMoved(fromIndex, toIndex, itemCount);
+        }
+    }
+
+    /**
+     * @return a count that changes whenever the models change, so a copy of
+     * the models can be checked to still be current.
+     */
+    int getModificationCount() {
+        return modificationCount;
     }
 
     public int getItemCount() {
@@ -375,11 +703,12 @@ public class UseCaseObservableList
      */
     @Override
     public void notifyDatasetChanged() {
-        if (isLogging) System.out.println(
-                TAG + "notifyDatasetChanged:" +
-                        " notifying " + modelListeners.size() + " listeners.");
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "notifyDatasetChanged:" +
+                " notifying " + modelListeners.getListenerCount() + " listeners.");
 
-        modelListeners.forEach(ModelListener::notifyDatasetChanged);
+        modificationCount++;
+        changeSink().notifyDatasetChanged();
     }
 
     /**
@@ -387,21 +716,33 @@ public class UseCaseObservableList
      */
     @Override
     public void notifyDataStructureChanged() {
-        if (isLogging) System.out.println(
-                TAG + "notifyDataStructureChanged: " +
-                        "notifying: " + modelListeners.size() + " listeners.");
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "notifyDataStructureChanged: " +
+                "notifying: " + modelListeners.getListenerCount() + " listeners.");
 
-        modelListeners.forEach(ModelListener::notifyDataStructureChanged);
+        modificationCount++;
+        changeSink().notifyDataStructureChanged();
     }
 
     public void addModelListener(ModelListener listener) {
-        modelListeners.add(listener);
-        if (isLogging) System.out.println(TAG + "addModelListener:" + listener.toString() +
-                " there are " + modelListeners.size() + " listeners.");
+        modelListeners.addModelListener(listener);
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "addModelListener:" + listener.toString() +
+                " there are " + modelListeners.getListenerCount() + " listeners.");
     }
 
     public void removeModelListener(ModelListener listener) {
-        modelListeners.remove(listener);
-        if (isLogging) System.out.println(TAG + "removeModelListener:" + listener.toString());
+        modelListeners.removeModelListener(listener);
+        Trace.log(Subsystem.USE_CASE, TAG, () ->
+                "removeModelListener:" + listener.toString());
+    }
+
+    /**
+     * Listeners are notified of changes once per event dispatch thread tick.
+     * Delivers any changes not yet notified straight away, for example before
+     * reading the state of a listener.
+     */
+    public void flushNotifications() {
+        modelListeners.flush();
     }
 }
@@ -1,17 +1,31 @@
 package genericlistview;
 
 import genericlistview.AbstractGenericListView.ViewHolder;
+import utils.Trace;
+import utils.Trace.Subsystem;
 
 import javax.swing.*;
 import javax.swing.event.CellEditorListener;
 import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableCellEditor;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * <strong><a id="override">Implementation Note</a></strong>
@@ -31,7 +45,6 @@ public abstract class AbstractGenericListView
         CellEditorListener {
 
     private static final String TAG = "AbstractGenericListView" + ": ";
-    private final boolean isLogging = false;
 
 // region view holder
 
@@ -46,6 +59,16 @@ public abstract class AbstractGenericListView
 
         // the view to be rendered
         protected final Component view;
+        // the view type this holder was created for
+        private int itemViewType;
+        // the index this holder was last fully bound to, and whether its item
+        // has changed since
+        int boundIndex = -1;
+        boolean isInvalid = true;
+        // the payloads of partial updates to the item since it was bound,
+        // and the key of the item they were made to
+        private final List<Object> payloads = new ArrayList<>();
+        private long payloadKey = NO_ID;
 
         /**
          * @param view the view to be rendered.
@@ -66,6 +89,58 @@ public abstract class AbstractGenericListView
             return view;
         }
 
+        /**
+         * @return the view type, as returned by
+         * {@link #getItemViewType(int)}, this holder was created for.
+         */
+        public int getItemViewType() {
+            return itemViewType;
+        }
+
+        void setItemViewType(int itemViewType) {
+            this.itemViewType = itemViewType;
+        }
+
+        /**
+         * @return the index this holder was last bound to, or -1 if it has
+         * not been bound. With stable ids this is not updated by inserts,
+         * deletes or moves until the holder is rendered again.
+         */
+        public int getBoundIndex() {
+            return boundIndex;
+        }
+
+        void setBound(int index) {
+            boundIndex = index;
+            isInvalid = false;
+            payloads.clear();
+        }
+
+        /*
+        Holders are reached through the raw bound of VIEW_HOLDER, which erases
+        a List member to the raw type. These keep the payloads typed.
+         */
+        void addPayload(long key,
+                        Object payload) {
+            if (payloadKey != key) {
+                payloads.clear();
+                payloadKey = key;
+            }
+            payloads.add(payload);
+        }
+
+        boolean hasPayloadsFor(long key) {
+            return !payloads.isEmpty() && payloadKey == key;
+        }
+
+        boolean hasPayloads() {
+            return !payloads.isEmpty();
+        }
+
+        Object[] getPayloads() {
+            return payloads.toArray();
+        }
+
         /**
          * The model passed into the {@link ViewHolder}. If this view holder
          * has been rendered by the {@link Editor} and data within the view has
@@ -83,9 +158,9 @@ public abstract class AbstractGenericListView
          * extracting any values in the ui controls, etc.
          */
         public void prepareEditingStopped() {
-            System.out.println(TAG + " prepareEditingStopped()" +
-                    " tableIsEditing=" + table.isEditing()
-            );
+            Trace.log(Subsystem.EDITOR, TAG, () ->
+                    " prepareEditingStopped()" +
+                    " tableIsEditing=" + table.isEditing());
         }
     }
 // endregion view holder
@@ -104,6 +179,15 @@ public abstract class AbstractGenericListView
 
         private static final String TAG = "Renderer" + ": ";
 
+        // paints rows into their snapshots, and draws a snapshot in place of
+        // the row
+        private final CellRendererPane snapshotPane = new CellRendererPane();
+        private final SnapshotView snapshotView = new SnapshotView();
+
+        private Renderer() {
+            table.add(snapshotPane);
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table,
                                                        Object model,
@@ -112,50 +196,84 @@ public abstract class AbstractGenericListView
                                                        int index,
                                                        int column) {
 
-            boolean isRecycled = false;
+            seedRowHeights();
+
+            // an unchanged row is drawn from its snapshot, without binding
+            if (snapshots != null &&
+                    index < rowHeights.getRowCount() &&
+                    rowHeights.isMeasured(index)) {
+                Rectangle cell = table.getCellRect(index, column, false);
+                Image image = snapshots.get(keyOf(index), model, cell.width, cell.height, getDisplayScale());
+                if (image != null) {
+                    snapshotView.image = image;
+                    return snapshotView;
+                }
+            }
 
-            VIEW_HOLDER viewHolder = null;
+            int viewType = getItemViewType(index);
+            long missCount = recycledViews.getPool(viewType).getMissCount();
+            // while flinging rows are only stamped, they are bound in full
+            // once scrolling settles
+            boolean isLightweight = scrollTracker.isFlinging();
 
-            if (index < recyclableViews.size()) {
-                viewHolder = recyclableViews.get(index);
-            }
+            VIEW_HOLDER viewHolder = acquireViewHolder(index, false, isLightweight);
 
-            if (viewHolder == null) {
-                viewHolder = onCreateViewHolder(index, false);
-                recyclableViews.add(index, viewHolder);
-
-                if (isLogging)
-                    recyclableViews.forEach(view_holder ->
-                            System.out.println(TAG + "getTableCellRendererComponent:" +
-                                    " recyclable view=" +
-                                    " view holder at:" +
-                                    " hasModel=" + view_holder.getModel()
-                            )
-                    );
+            boolean isRecycled = missCount == recycledViews.getPool(viewType).getMissCount();
 
-            } else {
-                isRecycled = true;
-                onBindViewHolder(index, false, viewHolder);
+            var view = (Component) viewHolder.view;
+            if (!isLightweight) {
+                int width = table.getColumnModel().getColumn(column).getWidth() -
+                        table.getIntercellSpacing().width;
+                measureRow(index, view, Math.max(0, width));
+                if (index < rowHeights.getRowCount() &&
+                        table.getRowHeight(index) != rowHeights.getRowHeight(index)) {
+                    table.setRowHeight(index, rowHeights.getRowHeight(index));
+                }
             }
 
-            var view = (Component) viewHolder.view;
-            setViewHeight(view);
+            // rows stamped while flinging are not captured, they are bound
+            // in full once scrolling settles
+            if (snapshots != null && !isLightweight) {
+                Rectangle cell = table.getCellRect(index, column, false);
+                Image image = snapshots.capture(
+                        keyOf(index),
+                        model,
+                        cell.width,
+                        cell.height,
+                        getDisplayScale(),
+                        g -> snapshotPane.paintComponent(
+                                g, view, table, 0, 0, cell.width, cell.height, true
+                        )
+                );
+                if (image != null) {
+                    snapshotView.image = image;
+                    return snapshotView;
+                }
+            }
 
-            System.out.println(TAG + "getTableCellRenderer: rendering model=" + model +
-                    " isRecycled=" + isRecycled);
+            if (Trace.isEnabled(Subsystem.RENDERER)) {
+                Trace.log(Subsystem.RENDERER, TAG, () ->
+                        "getTableCellRenderer: rendering model=" + model +
+                        " isRecycled=" + isRecycled +
+                        " isLightweight=" + isLightweight);
+            }
 
             return view;
         }
 
-        private void setViewHeight(Component view) {
+    }
+    /**
+     * Draws the snapshot of a row in its cell.
+     */
+    @SuppressWarnings("serial")
+    private static class SnapshotView
+            extends JComponent {
 
-            int rowHeight = table.getRowHeight();
-            int requiredHeight = view.getPreferredSize().height +
-                    table.getIntercellSpacing().height;
+        private Image image;
 
-            if (rowHeight < requiredHeight) {
-                table.setRowHeight(requiredHeight);
-            }
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.drawImage(image, 0, 0, getWidth(), getHeight(), null);
         }
     }
 // endregion renderer
@@ -164,7 +282,11 @@ public abstract class AbstractGenericListView
 
     /**
      * When a cell is selected this class renders the view for editing the data
-     * model.
+     * model. The editor keeps its own long lived view holder for each view
+     * type, created with <code>isEditor</code> set and rebound to the row each
+     * time editing starts. It never takes a holder from the recycling pool, so
+     * the renderers holders stay plain paint stamps and the holder being
+     * edited is never rebound by a repaint.
      */
     private class Editor
             extends AbstractCellEditor
@@ -172,6 +294,8 @@ public abstract class AbstractGenericListView
 
         private static final String TAG = "Editor" + ": ";
 
+        // the editors own holders, keyed by view type
+        private final Map<Integer, VIEW_HOLDER> editorHolders = new HashMap<>();
         private VIEW_HOLDER viewHolder;
 
         @Override
@@ -181,28 +305,19 @@ public abstract class AbstractGenericListView
                                                      int index,
                                                      int column) {
 
-            System.out.println(TAG + "getTableCellEditor: rendering model:=" + model);
+            long start = System.nanoTime();
+            Trace.log(Subsystem.EDITOR, TAG, () -> "getTableCellEditor: rendering model:=" + model);
 
-            viewHolder = null;
-
-            if (index < recyclableViews.size()) {
-                viewHolder = recyclableViews.get(index);
-            }
+            int viewType = getItemViewType(index);
+            viewHolder = editorHolders.get(viewType);
             if (viewHolder == null) {
-                viewHolder = onCreateViewHolder(index, true);
-                recyclableViews.add(index, viewHolder);
-
-                recyclableViews.forEach(viewHolder ->
-                        System.out.println(TAG + "getTableCellEditorComponent: recyclable view=" +
-                                " view holder at:" +
-                                " hasModel=" + viewHolder.getModel()
-                        )
-                );
-
+                viewHolder = createViewHolder(index, viewType, true);
+                editorHolders.put(viewType, viewHolder);
             } else {
-                onBindViewHolder(index, true, viewHolder);
+                bindViewHolder(index, true, viewHolder);
             }
 
+            metrics.editorStart.recordSince(start);
             return viewHolder.getView();
         }
 
@@ -217,22 +332,572 @@ public abstract class AbstractGenericListView
          */
         @Override
         public Object getCellEditorValue() {
-            System.out.println(TAG + "getCellEditorValue: calling viewHolder.getModel()");
+            Trace.log(Subsystem.EDITOR, TAG, () ->
+                    "getCellEditorValue: calling viewHolder.getModel()");
             return viewHolder.getModel();
         }
 
+        // rebinds the holder being edited to the row it has moved to, the
+        // editor is placed once the table has laid out the change
+        private void onRowMoved(int index) {
+            bindViewHolder(index, true, viewHolder);
+            SwingUtilities.invokeLater(() -> {
+                Component view = table.getEditorComponent();
+                if (view != null && table.isEditing()) {
+                    view.setBounds(table.getCellRect(
+                            table.getEditingRow(), table.getEditingColumn(), false
+                    ));
+                }
+            });
+        }
+
         @Override
         public boolean stopCellEditing() {
-            System.out.println(TAG
-                    + "stopCellEditing: table.isEditing=" + table.isEditing()
-                    + " calling: viewHolder.prepareEditingStopped()"
-            );
+            long start = System.nanoTime();
+            Trace.log(Subsystem.EDITOR, TAG, () ->
+                    "stopCellEditing: table.isEditing=" + table.isEditing()
+                    + " calling: viewHolder.prepareEditingStopped()");
             viewHolder.prepareEditingStopped();
-            return super.stopCellEditing();
+            boolean isStopped = super.stopCellEditing();
+            metrics.editorStop.recordSince(start);
+            return isStopped;
         }
+
     }
 // endregion editor
 
+// region scroll tracking
+
+    /**
+     * Tracks how fast the viewport is scrolling. Once
+     * {@link #FLING_SAMPLE_COUNT} scroll events in a row are each above the
+     * fling threshold rows are bound with
+     * {@link #onBindViewHolderLightweight(int, ViewHolder)}, and once no
+     * scrolling has happened for {@link #SETTLE_DELAY_MS} the visible rows are
+     * repainted, binding them in full.
+     */
+    private class ScrollVelocityTracker
+            implements ChangeListener {
+
+        private final Timer settleTimer;
+        private int lastY;
+        private long lastNanos;
+        // consecutive scroll events above the fling threshold
+        private int fastSampleCount;
+        private boolean isFlinging;
+
+        private ScrollVelocityTracker() {
+            settleTimer = new Timer(SETTLE_DELAY_MS, e -> settle());
+            settleTimer.setRepeats(false);
+        }
+
+        @Override
+        public void stateChanged(ChangeEvent e) {
+            int y = view.getViewport().getViewPosition().y;
+            long now = System.nanoTime();
+            if (lastNanos != 0 && y != lastY) {
+                double seconds = Math.max(now - lastNanos, 1) / 1e9;
+                double velocity = Math.abs(y - lastY) / seconds;
+                // a single large jump, such as a page down or a click on the
+                // scroll bar track, is not a fling
+                fastSampleCount = velocity > flingThreshold ? fastSampleCount + 1 : 0;
+                if (fastSampleCount >= FLING_SAMPLE_COUNT) {
+                    isFlinging = true;
+                }
+                settleTimer.restart();
+            }
+            lastY = y;
+            lastNanos = now;
+        }
+
+        private void settle() {
+            fastSampleCount = 0;
+            if (isFlinging) {
+                isFlinging = false;
+                Trace.log(Subsystem.RENDERER, TAG, () -> "settle: binding visible rows");
+                if (virtualViewport != null) {
+                    virtualViewport.layoutRows();
+                } else {
+                    table.repaint();
+                }
+            }
+        }
+
+        private boolean isFlinging() {
+            return isFlinging;
+        }
+    }
+// endregion scroll tracking
+
+// region repaint batching
+
+    /**
+     * Collects the rows updated during a frame and repaints them at most
+     * once every {@link #FRAME_INTERVAL_MS}, instead of the table repainting
+     * the row on every update. Only the visible rows are repainted, each run
+     * of adjacent rows as its own rectangle. Updated rows out of view have
+     * already had their holders, heights and snapshots invalidated, so they
+     * are simply bound again when they are scrolled into view.
+     */
+    private class RepaintBatcher {
+
+        private final Timer frameTimer;
+        // rows updated since the last frame
+        private final BitSet dirtyRows;
+
+        private RepaintBatcher() {
+            frameTimer = new Timer(FRAME_INTERVAL_MS, e -> repaintDirtyRows());
+            frameTimer.setRepeats(false);
+            dirtyRows = new BitSet();
+        }
+
+        private void rowsUpdated(int firstIndex,
+                                 int lastIndex) {
+            dirtyRows.set(firstIndex, lastIndex + 1);
+            if (!frameTimer.isRunning()) {
+                frameTimer.start();
+            }
+        }
+
+        // rows the table is already repainting, such as a moved window of
+        // rows, need not be repainted again
+        private void rowsRepainted(int firstIndex,
+                                   int lastIndex) {
+            dirtyRows.clear(firstIndex, lastIndex + 1);
+        }
+
+        // the table repaints every row from the first row inserted or
+        // deleted, which also leaves the dirty rows after it at stale indices
+        private void rowsRepaintedFrom(int firstIndex) {
+            dirtyRows.clear(firstIndex, Math.max(firstIndex, dirtyRows.length()));
+        }
+
+        private void repaintDirtyRows() {
+            if (virtualViewport != null) {
+                virtualViewport.rowsUpdated(dirtyRows);
+                dirtyRows.clear();
+                return;
+            }
+            Rectangle visible = table.getVisibleRect();
+            int rowCount = table.getRowCount();
+            int firstVisible = table.rowAtPoint(visible.getLocation());
+            int lastVisible = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+            if (lastVisible < 0) {
+                lastVisible = rowCount - 1;
+            }
+
+            if (firstVisible >= 0 && !visible.isEmpty()) {
+                int first = dirtyRows.nextSetBit(firstVisible);
+                while (first >= 0 && first <= lastVisible) {
+                    int last = Math.min(dirtyRows.nextClearBit(first), lastVisible + 1) - 1;
+                    Rectangle dirty = table.getCellRect(first, COLUMN_NUMBER, true)
+                            .union(table.getCellRect(last, COLUMN_NUMBER, true));
+                    table.paintImmediately(dirty);
+                    first = dirtyRows.nextSetBit(last + 1);
+                }
+            }
+            dirtyRows.clear();
+        }
+    }
+// endregion repaint batching
+
+// region virtual viewport
+
+    /**
+     * The component that lays out the rows of the list.
+     */
+    public enum Backend {
+        /**
+         * Rows are painted by a {@link JTable} through a cell renderer, with
+         * a cell editor for the row being edited. Supports selection and
+         * snapshot rendering.
+         */
+        TABLE,
+        /**
+         * The pooled views of the visible rows are laid out directly, as
+         * live components, in a purpose built scroll container. Each row is
+         * bound as an editor if its item is editable, there is no selection
+         * and no separate cell editor, and snapshot rendering does not
+         * apply.
+         */
+        VIRTUAL
+    }
+
+    /**
+     * Lays out the views of only the rows in the visible window, positioned
+     * from the {@link RowHeightIndex}, as children of a single panel. Its
+     * preferred height is the scroll range of the {@link ScrollGeometry}, so
+     * the scroll pane scrolls it as it would the table, and a list too tall
+     * for int pixel coordinates is scrolled by logical row position instead.
+     * Each time the viewport moves the views of rows scrolled out of view are
+     * detached, and the visible rows are acquired from the
+     * {@link RecycledViewPool} and attached.
+     */
+    @SuppressWarnings("serial")
+    private class VirtualViewport
+            extends JPanel
+            implements Scrollable,
+            ChangeListener {
+
+        // the views attached on the last layout
+        private final Set<Component> attachedViews;
+        private int firstAttachedRow = -1;
+        private int lastAttachedRow = -1;
+        // in grid mode, the height of each line of cells, the tallest cell
+        // in the line. Kept in step with inserted and deleted rows, and
+        // rebuilt when the data set or the span count changes.
+        private RowHeightIndex gridLines;
+        private ScrollGeometry gridGeometry;
+        private boolean isGridInvalid = true;
+        private int spanCount = 1;
+
+        private VirtualViewport() {
+            super(null);
+            attachedViews = Collections.newSetFromMap(new IdentityHashMap<>());
+            setOpaque(true);
+            setBackground(table.getBackground());
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            ScrollGeometry geometry = getGeometry();
+            if (!geometry.isScaled()) {
+                return new Dimension(0, geometry.getScrollRange());
+            }
+            // the last row is scrolled to at the end of the range, and the
+            // viewport below it is still needed to show it
+            int extent = getParent() instanceof JViewport ? getParent().getHeight() : 0;
+            return new Dimension(0, (int) Math.min((long) geometry.getScrollRange() + extent, Integer.MAX_VALUE));
+        }
+
+        @Override
+        public void doLayout() {
+            layoutRows();
+        }
+
+        @Override
+        public void stateChanged(ChangeEvent e) {
+            layoutRows();
+        }
+
+        @Override
+        protected void paintChildren(Graphics g) {
+            long start = System.nanoTime();
+            super.paintChildren(g);
+            metrics.paint.recordSince(start);
+        }
+
+        /*
+        Rows are laid out in lines of span count cells. In list mode a line is
+        a row, and the lines are the row heights themselves.
+         */
+        private void layoutRows() {
+            updateSpanCount();
+            RowHeightIndex lines = getLines();
+            ScrollGeometry geometry = getGeometry();
+            Rectangle visible = getVisibleRect();
+            long contentTop = geometry.toContentY(visible.y, visible.height);
+            // from list coordinates to this panels, zero unless scaled
+            long offset = visible.y - contentTop;
+            Dimension spacing = table.getIntercellSpacing();
+            int itemCount = Math.min(getItemCount(), rowHeights.getRowCount());
+            boolean isLightweight = scrollTracker.isFlinging();
+            boolean isHeightChanged = false;
+
+            Set<Component> placedViews = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Component> lineViews = new ArrayList<>(spanCount);
+            int firstLine = visible.isEmpty() ? -1 : lines.getRowAt(contentTop);
+            int lastRow = -1;
+            if (firstLine >= 0) {
+                long y = lines.getRowY(firstLine);
+                long bottom = contentTop + visible.height;
+                for (int line = firstLine; line < lines.getRowCount() && y < bottom; line++) {
+                    lineViews.clear();
+                    int firstIndex = line * spanCount;
+                    int lastIndex = Math.min(firstIndex + spanCount, itemCount) - 1;
+                    for (int index = firstIndex; index <= lastIndex; index++) {
+                        VIEW_HOLDER viewHolder = acquireViewHolder(index, isItemEditable(index), isLightweight);
+                        Component view = viewHolder.view;
+                        if (!placedViews.add(view)) {
+                            // the pool is too small for the window, so the
+                            // view of an earlier row was recycled
+                            recycledViews.setCapacity(recycledViews.getCapacity() + overscan + spanCount);
+                            layoutRows();
+                            return;
+                        }
+                        if (!isLightweight) {
+                            int column = index - firstIndex;
+                            int cellWidth = (column + 1) * getWidth() / spanCount - column * getWidth() / spanCount;
+                            isHeightChanged |= measureRow(index, view, Math.max(0, cellWidth - spacing.width));
+                        }
+                        if (view.getParent() != this) {
+                            add(view);
+                        }
+                        lineViews.add(view);
+                    }
+                    if (gridLines != null && !isLightweight) {
+                        isHeightChanged |= measureLine(line);
+                    }
+
+                    int lineHeight = lines.getRowHeight(line);
+                    for (int column = 0; column < lineViews.size(); column++) {
+                        int x = column * getWidth() / spanCount;
+                        int cellWidth = (column + 1) * getWidth() / spanCount - x;
+                        Component view = lineViews.get(column);
+                        view.setBounds(
+                                x + spacing.width / 2,
+                                (int) (y + offset) + spacing.height / 2,
+                                Math.max(0, cellWidth - spacing.width),
+                                Math.max(0, lineHeight - spacing.height)
+                        );
+                        view.validate();
+                    }
+                    lastRow = Math.max(lastRow, lastIndex);
+                    y += lineHeight;
+                }
+            }
+
+            for (Component view : attachedViews) {
+                if (!placedViews.contains(view) && view.getParent() == this) {
+                    remove(view);
+                }
+            }
+            attachedViews.clear();
+            attachedViews.addAll(placedViews);
+            firstAttachedRow = lastRow >= 0 ? firstLine * spanCount : -1;
+            lastAttachedRow = lastRow;
+
+            repaint(visible);
+            if (isHeightChanged) {
+                revalidate();
+            }
+        }
+
+        // the span count follows the width, so a wider viewport fits more
+        // cells on each line
+        private void updateSpanCount() {
+            int span = gridColumnWidth > 0 ? Math.max(1, getWidth() / gridColumnWidth) : 1;
+            if (span != spanCount) {
+                spanCount = span;
+                isGridInvalid = true;
+                updatePoolCapacity();
+            }
+        }
+
+        private RowHeightIndex getLines() {
+            seedRowHeights();
+            if (gridColumnWidth <= 0) {
+                gridLines = null;
+                gridGeometry = null;
+                return rowHeights;
+            }
+            if (isGridInvalid || gridLines == null ||
+                    gridLines.getEstimatedRowHeight() != rowHeights.getEstimatedRowHeight()) {
+                rebuildGridLines();
+            }
+            return gridLines;
+        }
+
+        private ScrollGeometry getGeometry() {
+            getLines();
+            return gridGeometry != null ? gridGeometry : scrollGeometry;
+        }
+
+        // only lines holding a measured row are given their own height
+        private void rebuildGridLines() {
+            int lineCount = getLineCount(rowHeights.getRowCount());
+            gridLines = new RowHeightIndex(rowHeights.getEstimatedRowHeight());
+            if (lineCount > 0) {
+                gridLines.insertRows(0, lineCount - 1);
+            }
+            measureLines(0, lineCount - 1);
+            gridGeometry = new ScrollGeometry(gridLines);
+            isGridInvalid = false;
+        }
+
+        private int getLineCount(int rowCount) {
+            return (rowCount + spanCount - 1) / spanCount;
+        }
+
+        private void invalidateGrid() {
+            isGridInvalid = true;
+        }
+
+        private boolean isGridInStep(int previousRowCount) {
+            return gridLines != null && !isGridInvalid &&
+                    gridLines.getRowCount() == getLineCount(previousRowCount);
+        }
+
+        /*
+        A whole number of lines of rows inserted or deleted moves the later
+        lines along with their heights, so only the lines the change starts
+        and ends in are measured again. Otherwise every later cell moves along its line, and
+        the later lines holding a measured cell are measured again.
+         */
+        private void rowsInserted(int firstRow,
+                                  int lastRow) {
+            int rowCount = lastRow - firstRow + 1;
+            if (!isGridInStep(rowHeights.getRowCount() - rowCount)) {
+                isGridInvalid = true;
+                return;
+            }
+            int firstLine = firstRow / spanCount;
+            if (rowCount % spanCount == 0) {
+                int lineCount = rowCount / spanCount;
+                gridLines.insertRows(firstLine, firstLine + lineCount - 1);
+                measureLines(firstLine, firstLine + lineCount);
+            } else {
+                setLineCount(getLineCount(rowHeights.getRowCount()));
+                measureLines(firstLine, gridLines.getRowCount() - 1);
+            }
+        }
+
+        private void rowsDeleted(int firstRow,
+                                 int lastRow) {
+            int rowCount = lastRow - firstRow + 1;
+            if (!isGridInStep(rowHeights.getRowCount() + rowCount)) {
+                isGridInvalid = true;
+                return;
+            }
+            int firstLine = firstRow / spanCount;
+            if (rowCount % spanCount == 0) {
+                int lineCount = rowCount / spanCount;
+                gridLines.removeRows(firstLine, firstLine + lineCount - 1);
+                measureLines(firstLine, firstLine);
+            } else {
+                setLineCount(getLineCount(rowHeights.getRowCount()));
+                measureLines(firstLine, gridLines.getRowCount() - 1);
+            }
+        }
+
+        // the rows have been measured again or moved, so have their lines
+        private void rowsChanged(int firstRow,
+                                 int lastRow) {
+            if (isGridInStep(rowHeights.getRowCount())) {
+                measureLines(firstRow / spanCount, Math.min(lastRow / spanCount, gridLines.getRowCount() - 1));
+            }
+        }
+
+        // adds or removes lines at the end
+        private void setLineCount(int lineCount) {
+            int previousCount = gridLines.getRowCount();
+            if (lineCount > previousCount) {
+                gridLines.insertRows(previousCount, lineCount - 1);
+            } else if (lineCount < previousCount) {
+                gridLines.removeRows(lineCount, previousCount - 1);
+            }
+        }
+
+        // visits only the lines that hold a measured row or had a height of
+        // their own, the rest keep the estimated height
+        private void measureLines(int firstLine,
+                                  int lastLine) {
+            int line = firstLine;
+            while (line <= lastLine) {
+                int measuredRow = rowHeights.nextMeasuredRow(line * spanCount);
+                int measuredLine = gridLines.nextMeasuredRow(line);
+                int rowLine = measuredRow < 0 ? Integer.MAX_VALUE : measuredRow / spanCount;
+                line = Math.min(rowLine, measuredLine < 0 ? Integer.MAX_VALUE : measuredLine);
+                if (line > lastLine) {
+                    return;
+                }
+                measureLine(line);
+                line++;
+            }
+        }
+
+        // the line is as tall as its tallest cell, returns true if its height
+        // changed
+        private boolean measureLine(int line) {
+            int firstIndex = line * spanCount;
+            int lastIndex = Math.min(firstIndex + spanCount, rowHeights.getRowCount()) - 1;
+            int lineHeight = 0;
+            boolean isMeasured = gridLines.isMeasured(line);
+            for (int index = firstIndex; index <= lastIndex; index++) {
+                lineHeight = Math.max(lineHeight, rowHeights.getRowHeight(index));
+                isMeasured |= rowHeights.isMeasured(index);
+            }
+            return isMeasured && gridLines.setRowHeight(line, lineHeight);
+        }
+
+        // the first row of the top visible line
+        private int getTopRow() {
+            Rectangle visible = getVisibleRect();
+            long contentTop = getGeometry().toContentY(visible.y, visible.height);
+            int line = getLines().getRowAt(contentTop);
+            return line < 0 ? -1 : line * spanCount;
+        }
+
+        private int getScrollValue(int index) {
+            return getGeometry().getScrollValue(index / spanCount);
+        }
+
+        // lays out again if any of the rows is attached
+        private void rowsUpdated(BitSet rows) {
+            if (firstAttachedRow < 0) {
+                return;
+            }
+            int updated = rows.nextSetBit(firstAttachedRow);
+            if (updated >= 0 && updated <= lastAttachedRow) {
+                layoutRows();
+            }
+        }
+
+        private void modelChanged() {
+            revalidate();
+            layoutRows();
+        }
+
+// region implements Scrollable
+        @Override
+        public Dimension getPreferredScrollableViewportSize() {
+            return table.getPreferredScrollableViewportSize();
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect,
+                                              int orientation,
+                                              int direction) {
+            if (orientation != SwingConstants.VERTICAL) {
+                return 1;
+            }
+            ScrollGeometry geometry = getGeometry();
+            return geometry.isScaled()
+                    ? geometry.getStepsPerRow()
+                    : Math.max(1, rowHeights.getEstimatedRowHeight());
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect,
+                                               int orientation,
+                                               int direction) {
+            if (orientation != SwingConstants.VERTICAL) {
+                return visibleRect.width;
+            }
+            ScrollGeometry geometry = getGeometry();
+            if (!geometry.isScaled()) {
+                return visibleRect.height;
+            }
+            int visibleRows = visibleRect.height / Math.max(1, rowHeights.getEstimatedRowHeight());
+            return (int) Math.min((long) Math.max(1, visibleRows) * geometry.getStepsPerRow(),
+                    Integer.MAX_VALUE);
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth() {
+            return true;
+        }
+
+        // fills the viewport when the rows do not
+        @Override
+        public boolean getScrollableTracksViewportHeight() {
+            return getParent() instanceof JViewport &&
+                    getParent().getHeight() > getPreferredSize().height;
+        }
+// endregion implements Scrollable
+    }
+// endregion virtual viewport
+
 // region model
 
     /**
@@ -269,7 +934,7 @@ public abstract class AbstractGenericListView
         @Override
         public boolean isCellEditable(int rowIndex,
                                       int columnIndex) {
-            return true;
+            return isItemEditable(rowIndex);
         }
 
         @Override
@@ -297,26 +962,110 @@ public abstract class AbstractGenericListView
 
             AbstractGenericListView.this.setValueAt(rowIndex, model);
         }
+
+        /**
+         * Times how long all listeners, including the table itself, take to
+         * handle each event.
+         *
+         * @param e the event to deliver.
+         */
+        @Override
+        public void fireTableChanged(TableModelEvent e) {
+            long start = System.nanoTime();
+            super.fireTableChanged(e);
+            metrics.tableChanged.recordSince(start);
+        }
     }
 // endregion model
 
+// region table
+
+    /**
+     * The table used to display the list, timing each paint.
+     */
+    @SuppressWarnings("serial")
+    private class ListTable
+            extends JTable {
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            long start = System.nanoTime();
+            super.paintComponent(g);
+            metrics.paint.recordSince(start);
+        }
+
+        // the snapshots were painted with the old look and feel
+        @Override
+        public void updateUI() {
+            super.updateUI();
+            if (snapshots != null) {
+                snapshots.clear();
+            }
+        }
+    }
+// endregion table
+
     private static final String COLUMN_NAME = "COLUMN_NAME";
     private static final int COLUMN_NUMBER = 0;
+    private static final int DEFAULT_OVERSCAN = 4;
+    private static final int SETTLE_DELAY_MS = 120;
+    private static final int FLING_SAMPLE_COUNT = 3;
+    // about one frame at 60 Hz
+    private static final int FRAME_INTERVAL_MS = 16;
+    public static final double DEFAULT_FLING_THRESHOLD = 3000;
+    public static final long NO_ID = -1;
 
     private final JTable table;
     private final AbstractTableModel tableModel;
     private final JScrollPane view;
-    protected final ArrayList<VIEW_HOLDER> recyclableViews;
+    private final RecycledViewPool<VIEW_HOLDER> recycledViews;
     private final Editor editor;
+    private final RowHeightIndex rowHeights;
+    private final ScrollGeometry scrollGeometry;
+    private final ListViewMetrics metrics;
+    private final ScrollVelocityTracker scrollTracker;
+    private final RepaintBatcher repaintBatcher;
+    private final Backend backend;
+    // null unless the virtual backend is used
+    private final VirtualViewport virtualViewport;
+    private boolean hasMeasuredRows;
+    // false until the row heights are sized to the items, see seedRowHeights
+    private boolean isRowHeightsSeeded;
+    private boolean hasStableIds;
+    // null unless snapshot rendering is turned on
+    private RowSnapshotCache snapshots;
+    private int overscan = DEFAULT_OVERSCAN;
+    private double flingThreshold = DEFAULT_FLING_THRESHOLD;
+    // zero for a single column list
+    private int gridColumnWidth;
+    // null unless sections are turned on
+    private SectionIndex sections;
+    private JPanel stickyHeader;
+    private int stickySectionStart = SectionIndex.NO_SECTION;
+    private boolean isStickyHeaderInvalid;
 
     protected AbstractGenericListView() {
+        this(Backend.TABLE);
+    }
 
+    /**
+     * @param backend the component that lays out the rows.
+     */
+    protected AbstractGenericListView(Backend backend) {
+
+        this.backend = backend;
         tableModel = new GenericTableModel();
-        table = new JTable();
-        view = new JScrollPane(table);
-        recyclableViews = new ArrayList<>();
+        recycledViews = new RecycledViewPool<>();
+        metrics = new ListViewMetrics(recycledViews);
+        table = new ListTable();
+        rowHeights = new RowHeightIndex(table.getRowHeight());
+        scrollGeometry = new ScrollGeometry(rowHeights);
+        virtualViewport = backend == Backend.VIRTUAL ? new VirtualViewport() : null;
+        view = new JScrollPane(virtualViewport != null ? virtualViewport : table);
         editor = new Editor();
         editor.addCellEditorListener(this);
+        scrollTracker = new ScrollVelocityTracker();
+        repaintBatcher = new RepaintBatcher();
 
         initialiseTable();
         addListeners();
@@ -325,7 +1074,10 @@ public abstract class AbstractGenericListView
     private void initialiseTable() {
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         table.setIntercellSpacing(new Dimension(5, 5));
-        table.setModel(tableModel);
+        // the virtual backend only borrows the tables metrics and colours
+        if (virtualViewport == null) {
+            table.setModel(tableModel);
+        }
         table.setFillsViewportHeight(true);
         table.setTableHeader(null);
         table.setShowGrid(false);
@@ -337,16 +1089,304 @@ public abstract class AbstractGenericListView
 
     private void addListeners() {
         tableModel.addTableModelListener(this);
+        view.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                updatePoolCapacity();
+            }
+        });
+        table.addPropertyChangeListener("rowHeight", e -> updatePoolCapacity());
+        view.getViewport().addChangeListener(scrollTracker);
+        if (virtualViewport != null) {
+            view.getViewport().addChangeListener(virtualViewport);
+        }
+        view.getViewport().addChangeListener(e -> updateStickyHeader());
+    }
+
+    private VIEW_HOLDER createViewHolder(int index,
+                                         int viewType,
+                                         boolean isEditor) {
+        long start = System.nanoTime();
+        VIEW_HOLDER viewHolder = onCreateViewHolder(index, isEditor);
+        viewHolder.setItemViewType(viewType);
+        viewHolder.setBound(index);
+        metrics.create.recordSince(start);
+        return viewHolder;
+    }
+
+    // the holder of the row, bound unless it is already bound to the item
+    private VIEW_HOLDER acquireViewHolder(int index,
+                                          boolean isEditor,
+                                          boolean isLightweight) {
+        int viewType = getItemViewType(index);
+        return recycledViews.acquire(
+                keyOf(index),
+                index,
+                viewType,
+                position -> createViewHolder(position, viewType, isEditor),
+                isLightweight
+                        ? (position, recycled) -> bindViewHolderLightweight(position, recycled)
+                        : (position, recycled) -> {
+                            if (isBindNeeded(position, recycled)) {
+                                bindViewHolder(position, isEditor, recycled);
+                            }
+                        }
+        );
+    }
+
+    /*
+    The row heights are only kept in step by the table model events, so are
+    sized to the items there already are the first time they are needed. This
+    cannot be done in the constructor, as the subclass is not ready to count
+    its items until it returns.
+     */
+    private void seedRowHeights() {
+        if (!isRowHeightsSeeded) {
+            resetRows();
+        }
+    }
+
+    // the whole data set has changed, no holder is bound to a known row any
+    // more. Holders keyed by a stable id still belong to their items, but
+    // must be bound again.
+    private void resetRows() {
+        isRowHeightsSeeded = true;
+        recycledViews.scrapAll();
+        rowHeights.reset(getItemCount());
+        clearSnapshots();
+        repaintBatcher.rowsRepaintedFrom(0);
+        rebuildSections();
+        if (virtualViewport != null) {
+            virtualViewport.invalidateGrid();
+        }
+    }
+
+    /*
+    Rows are measured the first time they are rendered and again only after
+    their model has been updated. Each row keeps its own height, so a tall row
+    does not make every row tall. The view is laid out at the width it will be
+    shown at first, so content that wraps is measured at the width of its
+    cell. Returns true if the height of the row changed.
+     */
+    private boolean measureRow(int index,
+                               Component view,
+                               int width) {
+
+        if (index >= rowHeights.getRowCount() || rowHeights.isMeasured(index)) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        if (view.getWidth() != width) {
+            view.setSize(width, view.getHeight());
+            view.validate();
+        }
+        int requiredHeight = view.getPreferredSize().height +
+                table.getIntercellSpacing().height;
+        metrics.measure.recordSince(start);
+
+        // The first measurement is the best estimate for rows that have not
+        // been rendered yet.
+        if (!hasMeasuredRows) {
+            hasMeasuredRows = true;
+            rowHeights.setEstimatedRowHeight(requiredHeight);
+            table.setRowHeight(requiredHeight);
+        }
+
+        return rowHeights.setRowHeight(index, requiredHeight);
+    }
+
+    private void bindViewHolder(int index,
+                                boolean isEditor,
+                                VIEW_HOLDER viewHolder) {
+        long start = System.nanoTime();
+        if (isPartialBind(index, viewHolder)) {
+            onBindViewHolder(index, isEditor, viewHolder,
+                    Collections.unmodifiableList(Arrays.asList(viewHolder.getPayloads())));
+        } else {
+            onBindViewHolder(index, isEditor, viewHolder);
+        }
+        viewHolder.setBound(index);
+        metrics.bind.recordSince(start);
+    }
+
+    /*
+    A holder can be brought up to date with just the payloads when it has only
+    been updated with payloads since it was bound, and it is still bound to the
+    item they were made to, rather than having been recycled for another.
+     */
+    private boolean isPartialBind(int index,
+                                  VIEW_HOLDER viewHolder) {
+        return !viewHolder.isInvalid &&
+                viewHolder.hasPayloadsFor(keyOf(index));
+    }
+
+    /*
+    With stable ids a holder found for its own item is already bound, unless
+    the item has been updated or has moved to another index. Without them
+    every holder is rebound, as the data at an index may have changed.
+     */
+    private boolean isBindNeeded(int index,
+                                 VIEW_HOLDER viewHolder) {
+        return !hasStableIds ||
+                viewHolder.isInvalid ||
+                viewHolder.hasPayloads() ||
+                viewHolder.boundIndex != index;
+    }
+
+    // holders are keyed by the stable id of their item, or by its index
+    private long keyOf(int index) {
+        return hasStableIds ? getItemId(index) : index;
+    }
+
+    // drops the snapshots of the rows, they are captured again when next
+    // rendered
+    private void invalidateSnapshots(int firstIndex,
+                                     int lastIndex) {
+        if (snapshots == null) {
+            return;
+        }
+        int last = Math.min(lastIndex, getItemCount() - 1);
+        for (int index = firstIndex; index <= last; index++) {
+            snapshots.remove(keyOf(index));
+        }
+    }
+
+    private void clearSnapshots() {
+        if (snapshots != null) {
+            snapshots.clear();
+        }
+    }
+
+    // the scale of the screen the table is on, snapshots are captured at it
+    // so they stay sharp on high density displays
+    private double getDisplayScale() {
+        GraphicsConfiguration configuration = table.getGraphicsConfiguration();
+        return configuration == null ? 1 : configuration.getDefaultTransform().getScaleX();
+    }
+
+    // marks the holders of the rows as needing to be bound again in full.
+    // Without stable ids holders are keyed by their current row.
+    private void invalidateViewHolders(int firstIndex,
+                                       int lastIndex) {
+        recycledViews.forEachBound((key, viewHolder) -> {
+            long index = hasStableIds ? viewHolder.boundIndex : key;
+            if (index >= firstIndex && index <= lastIndex) {
+                viewHolder.isInvalid = true;
+            }
+        });
+    }
+
+    // editing rows are not moved by the table, so follow inserts and deletes
+    // above the row being edited here
+    private void shiftEditingRow(int fromIndex,
+                                 int delta) {
+        if (table.isEditing() && table.getEditingRow() >= fromIndex) {
+            int editingRow = table.getEditingRow() + delta;
+            table.setEditingRow(editingRow);
+            editor.onRowMoved(editingRow);
+        }
+    }
+
+    private void bindViewHolderLightweight(int index,
+                                           VIEW_HOLDER viewHolder) {
+        long start = System.nanoTime();
+        onBindViewHolderLightweight(index, viewHolder);
+        // only stamped, so bound in full when it is next rendered
+        viewHolder.isInvalid = true;
+        metrics.bind.recordSince(start);
+    }
+
+    // a row starts a section if it is the first row, or its key differs from
+    // the key of the row before it. Only the rows given are checked. The
+    // sticky header is only bound again if a start changed or its own row
+    // was among the rows, so editing a row does not rebind it on every key.
+    private void updateSectionStarts(int firstIndex,
+                                     int lastIndex) {
+        if (sections == null) {
+            return;
+        }
+        int first = Math.max(0, firstIndex);
+        int last = Math.min(lastIndex, getItemCount() - 1);
+        boolean isStartChanged = false;
+        for (int index = first; index <= last; index++) {
+            isStartChanged |= sections.setSectionStart(index,
+                    index == 0 || !Objects.equals(getSectionKey(index), getSectionKey(index - 1)));
+        }
+        if (isStartChanged || (stickySectionStart >= first && stickySectionStart <= last)) {
+            isStickyHeaderInvalid = true;
+        }
+        updateStickyHeader();
+    }
+
+    // O(n), used when the whole data set has changed
+    private void rebuildSections() {
+        if (sections != null) {
+            sections.clear();
+            updateSectionStarts(0, getItemCount() - 1);
+        }
+    }
+
+    /*
+    Shows the header of the section holding the top visible row above the
+    list. The section is found in O(log n) from the row heights and the
+    section index, and the header is only asked for again when the section
+    changes.
+     */
+    private void updateStickyHeader() {
+        if (sections == null) {
+            return;
+        }
+        seedRowHeights();
+        int topRow = virtualViewport != null
+                ? virtualViewport.getTopRow()
+                : rowHeights.getRowAt(view.getViewport().getViewPosition().y);
+        int section = topRow < 0 ? SectionIndex.NO_SECTION : sections.getSectionAt(topRow);
+        int sectionStart = section == SectionIndex.NO_SECTION
+                ? SectionIndex.NO_SECTION
+                : sections.getSectionStart(section);
+        if (sectionStart == stickySectionStart && !isStickyHeaderInvalid) {
+            return;
+        }
+        stickySectionStart = sectionStart;
+        isStickyHeaderInvalid = false;
+
+        stickyHeader.removeAll();
+        if (sectionStart != SectionIndex.NO_SECTION) {
+            Component header = getSectionHeader(sectionStart, getSectionKey(sectionStart));
+            if (header != null) {
+                stickyHeader.add(header, BorderLayout.CENTER);
+            }
+        }
+        stickyHeader.revalidate();
+        stickyHeader.repaint();
+    }
+
+    /*
+    Sizes each view types recycling pool to the number of rows that fit in
+    the viewport, plus the overscan margin, times the cells on each line in
+    grid layout. Any holder beyond that would only ever be evicted.
+     */
+    private void updatePoolCapacity() {
+        int viewportHeight = view.getViewport().getExtentSize().height;
+        int rowHeight = Math.max(1, rowHeights.getEstimatedRowHeight());
+        int visibleRows = (viewportHeight + rowHeight - 1) / rowHeight + 1;
+        recycledViews.setCapacity((visibleRows + overscan) * getSpanCount());
     }
 
 // region abstract methods
 
     /**
      * When a view is created with this method it is stored in the
-     * <code>recyclableViews</code> hash table instance variable with the
-     * models index as the key. When the Editor or Renderer is invoked to
-     * provide a view, if the view does not exist this method is called. If the
-     * view exists the {@link #onBindViewHolder} method is called.
+     * {@link ViewHolderPool} with the models index as the key. When the
+     * Editor or Renderer is invoked to provide a view, this method is only
+     * called if the pool has spare capacity. Otherwise an existing view
+     * holder, either the one bound to the index or the least recently used
+     * one, is passed to the {@link #onBindViewHolder} method.
+     * <p>
+     * The view holder should have the layout for the view type returned by
+     * {@link #getItemViewType(int)} for the index, as it will only ever be
+     * reused for rows of that type.
      *
      * @param index    the index of the model in the underlying data.
      * @param isEditor if the view to return is about to be edited.
@@ -359,10 +1399,83 @@ public abstract class AbstractGenericListView
                                                       final boolean isEditor
     );
 
+    /**
+     * Tells the list view which layout the item at the index uses. View
+     * holders are pooled by view type, so a row is only ever bound to a view
+     * holder created for its own type. Lists that mix layouts, such as header,
+     * summary and member rows, should override this method. The default
+     * implementation returns 0, a single layout for every row.
+     *
+     * @param index the index of the item in the data.
+     * @return a non negative integer identifying the items layout.
+     */
+    protected int getItemViewType(int index) {
+        return 0;
+    }
+
+    /**
+     * Tells the list view whether the item at the index may be edited, for
+     * example a placeholder row whose data is still loading may not. The
+     * default implementation returns true.
+     *
+     * @param index the index of the item in the data.
+     * @return true if the item may be edited.
+     */
+    protected boolean isItemEditable(int index) {
+        return true;
+    }
+
+    /**
+     * Gives the item at the index an id that stays the same as the item is
+     * inserted, deleted or moved around. Only called once
+     * {@link #setHasStableIds(boolean)} is set. View holders are then kept
+     * with their item rather than with their row, and a holder rendered for
+     * its own item is not bound again unless the item was updated or its
+     * index changed. The default implementation returns {@link #NO_ID}.
+     *
+     * @param index the index of the item in the data.
+     * @return the stable id of the item.
+     */
+    protected long getItemId(int index) {
+        return NO_ID;
+    }
+
+    /**
+     * Groups the items into sections, once sections are turned on with
+     * {@link #setSectionsEnabled(boolean)}. Adjacent items with equal keys
+     * are in the same section. The key of an item is expected to change only
+     * when the item is updated. The default implementation returns null, so
+     * every item is in one section.
+     *
+     * @param index the index of the item in the data.
+     * @return the key of the section the item is in.
+     */
+    protected Object getSectionKey(int index) {
+        return null;
+    }
+
+    /**
+     * Provides the sticky header shown above the list for the section the
+     * top visible row is in. Called each time the top row moves into another
+     * section, or the section changes, so may return the same component
+     * bound to the new section. The default implementation returns null,
+     * showing no header.
+     *
+     * @param sectionStart the index of the first item in the section.
+     * @param sectionKey   the key of the section.
+     * @return the header.
+     */
+    protected Component getSectionHeader(int sectionStart,
+                                         Object sectionKey) {
+        return null;
+    }
+
     /**
      * Called by the underlying table to display the data at the specified
      * index. This method should update the contents of the
-     * {@link ViewHolder#view} to reflect the item at the given index.
+     * {@link ViewHolder#view} to reflect the item at the given index. The
+     * view holder may have last been bound to a different index, as view
+     * holders are recycled across indices.
      *
      * @param index    The index of the item within the data set.
      * @param isEditor Tells the implementer if the view returned should
@@ -373,6 +1486,41 @@ public abstract class AbstractGenericListView
                                              final VIEW_HOLDER viewHolder
     );
 
+    /**
+     * Called instead of {@link #onBindViewHolder(int, boolean, ViewHolder)}
+     * when the item has only been updated with payloads since the view holder
+     * was last bound to it, see {@link #notifyItemUpdated(int, Object)}. The
+     * view already shows the item, so only the parts described by the
+     * payloads need updating. The default implementation does a full bind.
+     *
+     * @param index      the index of the item within the data set.
+     * @param isEditor   tells the implementer if the view returned should
+     *                   be editable.
+     * @param viewHolder the view holder bound to the item.
+     * @param payloads   the payloads, oldest first.
+     */
+    protected void onBindViewHolder(int index,
+                                    boolean isEditor,
+                                    VIEW_HOLDER viewHolder,
+                                    List<Object> payloads) {
+        onBindViewHolder(index, isEditor, viewHolder);
+    }
+
+    /**
+     * Called instead of {@link #onBindViewHolder} while the list is being
+     * flung faster than the fling threshold. Only stamp the values that are
+     * seen, skipping listeners and anything that causes a relayout, the row
+     * is bound in full through {@link #onBindViewHolder} once scrolling
+     * settles. The default implementation does a full bind.
+     *
+     * @param index      the index of the item within the data set.
+     * @param viewHolder a recycled view holder.
+     */
+    protected void onBindViewHolderLightweight(int index,
+                                               VIEW_HOLDER viewHolder) {
+        onBindViewHolder(index, false, viewHolder);
+    }
+
     /**
      * Called by the list model while rendering views.
      *
@@ -406,12 +1554,14 @@ public abstract class AbstractGenericListView
 
     @Override
     public void editingStopped(ChangeEvent e) {
-        System.out.println(TAG + "CellEditorListener: editingStopped: ChangeEvent=" + e);
+        Trace.log(Subsystem.EDITOR, TAG, () ->
+                "CellEditorListener: editingStopped: ChangeEvent=" + e);
     }
 
     @Override
     public void editingCanceled(ChangeEvent e) {
-        System.out.println(TAG + "CellEditorListener: editingStopped: ChangeEvent=" + e);
+        Trace.log(Subsystem.EDITOR, TAG, () ->
+                "CellEditorListener: editingStopped: ChangeEvent=" + e);
     }
 
 // endregion implements CellEditorListener
@@ -432,7 +1582,7 @@ public abstract class AbstractGenericListView
      */
     @Override
     public void notifyDatasetChanged() {
-        System.out.println(TAG + "notifyDatasetChanged: ");
+        Trace.log(Subsystem.LIST_VIEW, TAG, () -> "notifyDatasetChanged: ");
         tableModel.fireTableDataChanged();
     }
 
@@ -461,8 +1611,9 @@ public abstract class AbstractGenericListView
     }
 
     /**
-     * Delegate method that informs the table model of a change in the source
-     * data.
+     * Marks the items as changed in the source data. The visible rows among
+     * them are repainted with the next frame, the rest when they are next
+     * scrolled into view.
      *
      * @param firstIndex the inclusive index of the first item in the source
      *                   data to be updated.
@@ -473,19 +1624,58 @@ public abstract class AbstractGenericListView
     @Override
     public void notifyItemsUpdated(int firstIndex,
                                    int lastIndex) {
-        tableModel.fireTableCellUpdated(firstIndex, lastIndex);
+        rowHeights.invalidate(firstIndex, lastIndex);
+        invalidateViewHolders(firstIndex, lastIndex);
+        invalidateSnapshots(firstIndex, lastIndex);
+        repaintBatcher.rowsUpdated(firstIndex, lastIndex);
+        updateSectionStarts(firstIndex, lastIndex + 1);
     }
 
     /**
-     * Delegate method that informs the table model of a single item has been
-     * updated in the source data.
+     * Marks a single item as updated in the source data. The item will be
+     * measured again the next time it is rendered, and repainted with the
+     * next frame if it is visible.
      *
      * @param index the index of the updated item in the source data
      * @see ModelListener
      */
     @Override
     public void notifyItemUpdated(int index) {
-        tableModel.fireTableCellUpdated(index, COLUMN_NUMBER);
+        rowHeights.invalidate(index, index);
+        invalidateViewHolders(index, index);
+        invalidateSnapshots(index, index);
+        repaintBatcher.rowsUpdated(index, index);
+        updateSectionStarts(index, index + 1);
+    }
+
+    /**
+     * Marks a single item as updated, with a payload describing what
+     * changed. The view holder showing the item collects the
+     * payload and is partially bound through
+     * {@link #onBindViewHolder(int, boolean, ViewHolder, List)} the next time
+     * the row is rendered.
+     *
+     * @param index   the index of the updated item in the source data
+     * @param payload what changed in the item, or null if it may have
+     *                changed entirely.
+     * @see ModelListener
+     */
+    @Override
+    public void notifyItemUpdated(int index,
+                                  Object payload) {
+        if (payload == null) {
+            notifyItemUpdated(index);
+            return;
+        }
+        long key = keyOf(index);
+        VIEW_HOLDER viewHolder = recycledViews.peek(key);
+        if (viewHolder != null && !viewHolder.isInvalid) {
+            viewHolder.addPayload(key, payload);
+        }
+        rowHeights.invalidate(index, index);
+        invalidateSnapshots(index, index);
+        repaintBatcher.rowsUpdated(index, index);
+        updateSectionStarts(index, index + 1);
     }
 
     /**
@@ -499,12 +1689,67 @@ public abstract class AbstractGenericListView
     public void notifyItemsDeleted(final int firstIndex,
                                    final int lastIndex) {
 
-        System.out.println(TAG + "notifyItemsDeleted: " +
+        Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                "notifyItemsDeleted: " +
                 " firstIndex=" + firstIndex +
                 " lastIndex=" + lastIndex);
 
         tableModel.fireTableRowsDeleted(firstIndex, lastIndex);
     }
+
+    /**
+     * Moves the view holders and measured heights with their rows, so the
+     * moved rows are neither created nor measured again and only the rows
+     * between the two indices are repainted.
+     *
+     * @param fromIndex the index of the first item before the move.
+     * @param toIndex   the index of the first item after the move.
+     * @param itemCount the number of items moved.
+     * @see ModelListener
+     */
+    @Override
+    public void notifyItemsMoved(int fromIndex,
+                                 int toIndex,
+                                 int itemCount) {
+
+        Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                "notifyItemsMoved: " +
+                " fromIndex=" + fromIndex +
+                " toIndex=" + toIndex +
+                " itemCount=" + itemCount);
+
+        if (fromIndex == toIndex || itemCount <= 0) {
+            return;
+        }
+        int firstRow = Math.min(fromIndex, toIndex);
+        int lastRow = Math.max(fromIndex, toIndex) + itemCount - 1;
+
+        if (!hasStableIds) {
+            recycledViews.onItemsMoved(fromIndex, toIndex, itemCount);
+            invalidateSnapshots(firstRow, lastRow);
+        }
+        rowHeights.moveRows(fromIndex, toIndex, itemCount);
+        for (int row = firstRow; virtualViewport == null && row <= lastRow; row++) {
+            int rowHeight = rowHeights.getRowHeight(row);
+            if (table.getRowHeight(row) != rowHeight) {
+                table.setRowHeight(row, rowHeight);
+            }
+        }
+
+        // the editor follows its row, rather than being cancelled
+        if (table.isEditing()) {
+            int editingRow = table.getEditingRow();
+            int movedRow = ViewHolderPool.movedIndex(editingRow, fromIndex, toIndex, itemCount);
+            if (movedRow != editingRow) {
+                table.setEditingRow(movedRow);
+                editor.onRowMoved(movedRow);
+            }
+        }
+
+        repaintBatcher.rowsRepainted(firstRow, lastRow);
+        updateSectionStarts(firstRow, lastRow + 1);
+        tableModel.fireTableRowsUpdated(firstRow, lastRow);
+    }
 // endregion implements ModelListener
 
 // region implements TableModelListener
@@ -520,8 +1765,12 @@ public abstract class AbstractGenericListView
     public void tableChanged(TableModelEvent e) {
         int eventType = e.getType();
 
-        if (TableModelEvent.DELETE == eventType) {
-            System.out.println(TAG + "tableChanged: event=DELETE");
+        // the items counted when seeding already include this change
+        if (!isRowHeightsSeeded) {
+            Trace.log(Subsystem.LIST_VIEW, TAG, () -> "tableChanged: seeding row heights");
+            resetRows();
+        } else if (TableModelEvent.DELETE == eventType) {
+            Trace.log(Subsystem.LIST_VIEW, TAG, () -> "tableChanged: event=DELETE");
             // If the cell being edited is within the range of the cells that
             // have been deleted then editing must be either cancelled and the
             // view holder set to null or recycled.
@@ -555,53 +1804,95 @@ public abstract class AbstractGenericListView
                             // remove it.
                             table.removeEditor();
                         }
-                        VIEW_HOLDER viewHolder = recyclableViews.remove(editingRow);
-
-                        // remove the last element in the recyclable views or delete the range
-
-
-                        System.out.println(TAG + "tableChanged: removed viewHolder=" + viewHolder.getModel());
-                        viewHolder = null;
-                        System.out.println(TAG + "tableChanged: viewHolder=" + viewHolder);
-
-                        System.out.println(TAG + "tableChanged:" +
+                        Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                                "tableChanged:" +
                                 " editingCellInRangeOfDeletedCells=" + editingCellInRangeOfChangedCells +
-                                " editing has been cancelled. ViewHolder has been removed from recyclable views");
-
-                        recyclableViews.forEach(vh ->
-                                System.out.println(TAG + "tableChanged: " +
-                                        "view holder at:" +
-                                        " hasModel=" + vh.getModel()
-                                )
-                        );
-
+                                " editing has been cancelled. ViewHolder will be scrapped");
                     }
                 }
             }
+            int deletedCount = e.getLastRow() - e.getFirstRow() + 1;
+            shiftEditingRow(e.getLastRow() + 1, -deletedCount);
+
+            // holders bound to deleted rows are scrapped, the rest follow
+            // their rows to the new indices. With stable ids the holders of
+            // deleted items are never asked for again, so are evicted in turn.
+            // Snapshots keyed by row no longer match their rows.
+            if (!hasStableIds) {
+                recycledViews.onItemsDeleted(e.getFirstRow(), e.getLastRow());
+                clearSnapshots();
+            }
+            rowHeights.removeRows(e.getFirstRow(), e.getLastRow());
+            if (virtualViewport != null) {
+                virtualViewport.rowsDeleted(e.getFirstRow(), e.getLastRow());
+            }
+            repaintBatcher.rowsRepaintedFrom(e.getFirstRow());
+            if (sections != null) {
+                sections.removeRows(e.getFirstRow(), e.getLastRow());
+                updateSectionStarts(e.getFirstRow(), e.getFirstRow());
+            }
+
         } else if (TableModelEvent.UPDATE == eventType) {
             // The inclusive coordinates of the cells that have changed.
             int changedColumn = e.getColumn();
             int firstRowChanged = e.getFirstRow();
             int lastRowChanged = e.getLastRow();
-            recyclableViews.ensureCapacity(getItemCount());
 
-            System.out.println(TAG + "tableChanged: event=UPDATE" +
+            // The whole data set or structure has changed
+            if (firstRowChanged == TableModelEvent.HEADER_ROW) {
+                resetRows();
+            } else if (lastRowChanged == Integer.MAX_VALUE) {
+                clearSnapshots();
+                repaintBatcher.rowsRepaintedFrom(0);
+                if (hasStableIds) {
+                    recycledViews.forEachBound((key, viewHolder) -> viewHolder.isInvalid = true);
+                } else {
+                    recycledViews.scrapAll();
+                }
+                rowHeights.reset(getItemCount());
+                rebuildSections();
+                if (virtualViewport != null) {
+                    virtualViewport.invalidateGrid();
+                }
+            } else if (virtualViewport != null) {
+                virtualViewport.rowsChanged(firstRowChanged, lastRowChanged);
+            }
+
+            Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                    "tableChanged: event=UPDATE" +
                     " firstRowChanged:" + firstRowChanged +
-                    " lastRowChanged:" + lastRowChanged
-            );
+                    " lastRowChanged:" + lastRowChanged);
 
         } else if (TableModelEvent.INSERT == eventType) {
             // The inclusive coordinates of the cells that have changed.
             int changedColumn = e.getColumn();
             int firstRowChanged = e.getFirstRow();
             int lastRowChanged = e.getLastRow();
+            if (!hasStableIds) {
+                recycledViews.onItemsInserted(firstRowChanged, lastRowChanged);
+                clearSnapshots();
+            }
+            rowHeights.insertRows(firstRowChanged, lastRowChanged);
+            if (virtualViewport != null) {
+                virtualViewport.rowsInserted(firstRowChanged, lastRowChanged);
+            }
+            repaintBatcher.rowsRepaintedFrom(firstRowChanged);
+            if (sections != null) {
+                sections.insertRows(firstRowChanged, lastRowChanged);
+                updateSectionStarts(firstRowChanged, lastRowChanged + 1);
+            }
+            shiftEditingRow(firstRowChanged, lastRowChanged - firstRowChanged + 1);
 
-            System.out.println(TAG + "tableChanged: event=INSERT" +
+            Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                    "tableChanged: event=INSERT" +
                     " firstRowChanged:" + firstRowChanged +
-                    " lastRowChanged:" + lastRowChanged
-            );
+                    " lastRowChanged:" + lastRowChanged);
         } else {
-            System.out.println(TAG + "tableChanged: event=" + eventType);
+            Trace.log(Subsystem.LIST_VIEW, TAG, () -> "tableChanged: event=" + eventType);
+        }
+
+        if (virtualViewport != null) {
+            virtualViewport.modelChanged();
         }
     }
 // endregion implements TableModelListener
@@ -617,5 +1908,268 @@ public abstract class AbstractGenericListView
         return view;
     }
 
+    /**
+     * Access to the render pipeline metrics of this list view. Use
+     * {@link ListViewMetrics#getSnapshot()} to read them programmatically or
+     * {@link #publishMetrics(String)} to watch them over JMX.
+     *
+     * @return the metrics of this list view.
+     */
+    public ListViewMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Publishes the render pipeline metrics of this list view as an MBean on
+     * the platform MBean server, until the list view is disposed.
+     *
+     * @param name identifies this list view, unique within the application.
+     * @see ListViewMetrics#register(String)
+     * @see #dispose()
+     */
+    public void publishMetrics(String name) {
+        metrics.register(name);
+    }
+
+    /**
+     * Releases what this list view holds outside of its own components: its
+     * metrics MBean and its timers. Call it once the list view will no longer
+     * be shown, and stop notifying it of changes.
+     */
+    public void dispose() {
+        metrics.unregister();
+        scrollTracker.settleTimer.stop();
+        repaintBatcher.frameTimer.stop();
+        clearSnapshots();
+    }
+
+    public boolean isSnapshotRendering() {
+        return snapshots != null;
+    }
+
+    /**
+     * Turns on painting rows that are not being edited from a cached image of
+     * the row, captured the first time the row is bound in full. Scrolling
+     * over unchanged rows then draws their images instead of binding and
+     * painting their component trees. The image of a row is dropped when the
+     * row is updated, and every image when the data set or look and feel
+     * changes. An image is also only drawn for the same value, compared by
+     * identity, that {@link #getValueAt(int)} returned when it was captured,
+     * so suits immutable models. Rows should not animate or otherwise change
+     * without an update being notified. Off by default.
+     *
+     * @param isSnapshotRendering true to paint rows from their snapshots.
+     * @see RowSnapshotCache
+     */
+    public void setSnapshotRendering(boolean isSnapshotRendering) {
+        if (isSnapshotRendering == (snapshots != null)) {
+            return;
+        }
+        snapshots = isSnapshotRendering ? new RowSnapshotCache() : null;
+        table.repaint();
+    }
+
+    /**
+     * @return the snapshot cache, for example to change its memory budget, or
+     * null if snapshot rendering is off.
+     */
+    public RowSnapshotCache getSnapshotCache() {
+        return snapshots;
+    }
+
+    public boolean hasStableIds() {
+        return hasStableIds;
+    }
+
+    /**
+     * Keys view holders by {@link #getItemId(int)} rather than by index. Set
+     * this before the list is shown, any holders already bound are scrapped.
+     *
+     * @param hasStableIds true if every item has a unique, stable id.
+     */
+    public void setHasStableIds(boolean hasStableIds) {
+        if (this.hasStableIds != hasStableIds) {
+            this.hasStableIds = hasStableIds;
+            recycledViews.scrapAll();
+            clearSnapshots();
+        }
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public boolean isSectionsEnabled() {
+        return sections != null;
+    }
+
+    /**
+     * Turns sections on or off. While on, the boundaries between the
+     * sections given by {@link #getSectionKey(int)} are kept in a
+     * {@link SectionIndex}, updated as items are inserted, deleted, updated
+     * and moved, and the header of the section at the top of the list is
+     * shown above it. Turning sections on reads the key of every item.
+     *
+     * @param isSectionsEnabled true to group the items into sections.
+     */
+    public void setSectionsEnabled(boolean isSectionsEnabled) {
+        if (isSectionsEnabled == (sections != null)) {
+            return;
+        }
+        if (isSectionsEnabled) {
+            sections = new SectionIndex();
+            stickyHeader = new JPanel(new BorderLayout());
+            view.setColumnHeaderView(stickyHeader);
+            rebuildSections();
+        } else {
+            sections = null;
+            stickyHeader = null;
+            stickySectionStart = SectionIndex.NO_SECTION;
+            view.setColumnHeader(null);
+        }
+    }
+
+    /**
+     * @return the section boundaries, or null if sections are off.
+     */
+    public SectionIndex getSectionIndex() {
+        return sections;
+    }
+
+    public int getGridColumnWidth() {
+        return gridColumnWidth;
+    }
+
+    /**
+     * Turns on grid layout, placing as many cells on each line as fit the
+     * width of the viewport, each line as tall as its tallest cell. The
+     * cells are the same pooled view holders, bound by the same callbacks,
+     * so no more are created than there are cells visible. Grid layout needs
+     * the {@link Backend#VIRTUAL} backend.
+     *
+     * @param gridColumnWidth the least width of a cell, or zero for a single
+     *                        column list.
+     */
+    public void setGridColumnWidth(int gridColumnWidth) {
+        if (gridColumnWidth < 0) {
+            throw new IllegalArgumentException("gridColumnWidth may not be negative");
+        }
+        if (gridColumnWidth > 0 && virtualViewport == null) {
+            throw new IllegalStateException("grid layout needs the virtual backend");
+        }
+        this.gridColumnWidth = gridColumnWidth;
+        if (virtualViewport != null) {
+            virtualViewport.invalidateGrid();
+            virtualViewport.modelChanged();
+        }
+    }
+
+    /**
+     * @return the number of cells on each line, one unless in grid layout.
+     */
+    public int getSpanCount() {
+        return virtualViewport != null ? virtualViewport.spanCount : 1;
+    }
+
+    /**
+     * @return true while the list is scrolling faster than the fling
+     * threshold, and rows are bound with
+     * {@link #onBindViewHolderLightweight(int, ViewHolder)}.
+     */
+    public boolean isFlinging() {
+        return scrollTracker.isFlinging();
+    }
+
+    public double getFlingThreshold() {
+        return flingThreshold;
+    }
+
+    /**
+     * @param flingThreshold the scroll speed, in pixels per second, above
+     *                       which rows are bound lightweight once it has
+     *                       been held over several scroll events.
+     */
+    public void setFlingThreshold(double flingThreshold) {
+        if (flingThreshold < 0) {
+            throw new IllegalArgumentException("flingThreshold may not be negative");
+        }
+        this.flingThreshold = flingThreshold;
+    }
+
+    /**
+     * @param y a y coordinate within the list.
+     * @return the index of the row at the coordinate, or -1 if there is none.
+     * O(log n) regardless of how the row heights vary.
+     */
+    public int getRowAtY(long y) {
+        seedRowHeights();
+        return rowHeights.getRowAt(y);
+    }
+
+    /**
+     * @param index the index of the row.
+     * @return the y coordinate of the top of the row. O(log n) regardless of
+     * how the row heights vary.
+     */
+    public long getRowY(int index) {
+        seedRowHeights();
+        return rowHeights.getRowY(index);
+    }
+
+    /**
+     * Scrolls the row to the top of the viewport, or as near as the end of
+     * the list allows. With the virtual backend the position of the row is
+     * found in O(1) once the list is scrolled by logical row position, and
+     * in O(log n) otherwise.
+     *
+     * @param index the index of the row.
+     * @see ScrollGeometry
+     */
+    public void scrollToIndex(int index) {
+        if (index < 0 || index >= getItemCount()) {
+            throw new IndexOutOfBoundsException("index=" + index + " itemCount=" + getItemCount());
+        }
+        seedRowHeights();
+        JViewport viewport = view.getViewport();
+        int y = virtualViewport != null
+                ? virtualViewport.getScrollValue(index)
+                : table.getCellRect(index, COLUMN_NUMBER, true).y;
+        int maxY = Math.max(0, viewport.getViewSize().height - viewport.getExtentSize().height);
+        viewport.setViewPosition(new Point(viewport.getViewPosition().x, Math.min(y, maxY)));
+    }
+
+    /**
+     * Access to the pools of recycled view holders, mostly so their hit, miss
+     * and eviction counters can be used to tune the overscan.
+     *
+     * @return the view holder pools, one per view type.
+     */
+    public RecycledViewPool<VIEW_HOLDER> getRecycledViewPool() {
+        return recycledViews;
+    }
+
+    /**
+     * @return the number of rows, beyond those visible, that keep a bound
+     * view holder.
+     */
+    public int getOverscan() {
+        return overscan;
+    }
+
+    /**
+     * Sets the number of rows, beyond those visible in the viewport, that
+     * keep a bound view holder. A larger overscan trades memory for fewer
+     * rebinds when scrolling back and forth.
+     *
+     * @param overscan the number of extra rows, zero or more.
+     */
+    public void setOverscan(int overscan) {
+        if (overscan < 0) {
+            throw new IllegalArgumentException("overscan may not be negative");
+        }
+        this.overscan = overscan;
+        updatePoolCapacity();
+    }
+
 // endregion getters and setters
 }
@@ -0,0 +1,585 @@
+package genericlistview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates the inserts, updates and deletes made to a list and reduces
+ * them to the fewest contiguous ranges. Each change is recorded against the
+ * indices of the list as it was at the time of the change, exactly as a
+ * {@link ModelListener} would receive it, so interleaved inserts and deletes
+ * are adjusted for each other. Rows inserted and then deleted again are
+ * never reported, and updates to inserted rows are folded into the insert.
+ * <p>
+ * When replayed with {@link #dispatchTo(ModelListener)} the deletes are sent
+ * first, highest range first and in the original indices, then the fewest
+ * moves that put the remaining rows in their final order, then the inserts,
+ * lowest range first and in the final indices, and lastly the updates in the
+ * final indices. Each notification is valid against the list as left by the
+ * notifications before it.
+ * <p>
+ * An update may carry a payload describing what changed, see
+ * {@link ModelListener#notifyItemUpdated(int, Object)}. Payloads are
+ * replayed one notification per payload, unless the row was also updated
+ * without one, in which case the row is simply updated.
+ * <p>
+ * This class is not thread safe.
+ */
+public class ChangeSet {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "ChangeSet" + ": ";
+
+    /*
+    The list is held as runs of rows, each run either rows that were in the
+    original list, starting at oldStart, or rows that have been inserted. The
+    last run is always the original rows from oldStart to the end of the list,
+    which has an unknown length, so is given an unbounded one.
+     */
+    private static final class Run {
+        final boolean isInserted;
+        final int oldStart;
+        long length;
+        boolean isUpdated;
+
+        Run(boolean isInserted,
+            int oldStart,
+            long length,
+            boolean isUpdated) {
+            this.isInserted = isInserted;
+            this.oldStart = oldStart;
+            this.length = length;
+            this.isUpdated = isUpdated;
+        }
+
+        @Override
+        public String toString() {
+            return (isInserted ? "inserted" : "old:" + oldStart) +
+                    " length=" + (length == Long.MAX_VALUE ? "*" : length) +
+                    (isUpdated ? " updated" : "");
+        }
+    }
+
+    private final List<Run> runs;
+    // rows of the original list that have been deleted
+    private final BitSet deleted;
+    // the payloads of rows of the original list updated only with payloads
+    private final Map<Integer, List<Object>> payloads;
+
+    private boolean isDatasetChanged;
+    private boolean isDataStructureChanged;
+
+    public ChangeSet() {
+        runs = new ArrayList<>();
+        deleted = new BitSet();
+        payloads = new HashMap<>();
+        clear();
+    }
+
+// region record changes
+
+    /**
+     * @param firstIndex the inclusive index of the first item inserted.
+     * @param lastIndex  the inclusive index of the last item inserted.
+     */
+    public void itemsInserted(int firstIndex,
+                              int lastIndex) {
+        checkRange(firstIndex, lastIndex);
+        if (isDatasetChanged) {
+            return;
+        }
+        int position = splitAt(firstIndex);
+        runs.add(position, new Run(true, 0, lastIndex - firstIndex + 1, false));
+        normalize();
+    }
+
+    /**
+     * @param firstIndex the inclusive index of the first item updated.
+     * @param lastIndex  the inclusive index of the last item updated.
+     */
+    public void itemsUpdated(int firstIndex,
+                             int lastIndex) {
+        checkRange(firstIndex, lastIndex);
+        if (isDatasetChanged) {
+            return;
+        }
+        int first = splitAt(firstIndex);
+        int end = splitAt(lastIndex + 1);
+        for (int i = first; i < end; i++) {
+            Run run = runs.get(i);
+            if (!run.isInserted) {
+                run.isUpdated = true;
+                if (!payloads.isEmpty()) {
+                    for (int row = run.oldStart; row < run.oldStart + run.length; row++) {
+                        payloads.remove(row);
+                    }
+                }
+            }
+        }
+        normalize();
+    }
+
+    /**
+     * @param index   the index of the item updated.
+     * @param payload what changed in the item, or null if it may have
+     *                changed entirely.
+     */
+    public void itemUpdated(int index,
+                            Object payload) {
+        if (payload == null) {
+            itemsUpdated(index, index);
+            return;
+        }
+        checkRange(index, index);
+        if (isDatasetChanged) {
+            return;
+        }
+        int position = splitAt(index);
+        splitAt(index + 1);
+        Run run = runs.get(position);
+        // inserted rows and rows already updated in full are bound in full
+        if (!run.isInserted && (!run.isUpdated || payloads.containsKey(run.oldStart))) {
+            run.isUpdated = true;
+            payloads.computeIfAbsent(run.oldStart, row -> new ArrayList<>()).add(payload);
+        }
+        normalize();
+    }
+
+    /**
+     * @param firstIndex the inclusive index of the first item deleted.
+     * @param lastIndex  the inclusive index of the last item deleted.
+     */
+    public void itemsDeleted(int firstIndex,
+                             int lastIndex) {
+        checkRange(firstIndex, lastIndex);
+        if (isDatasetChanged) {
+            return;
+        }
+        int first = splitAt(firstIndex);
+        int end = splitAt(lastIndex + 1);
+        for (int i = first; i < end; i++) {
+            Run run = runs.get(i);
+            if (!run.isInserted) {
+                deleted.set(run.oldStart, run.oldStart + (int) run.length);
+            }
+        }
+        runs.subList(first, end).clear();
+        normalize();
+    }
+
+    /**
+     * @param fromIndex the index of the first item before the move.
+     * @param toIndex   the index of the first item after the move.
+     * @param itemCount the number of items moved.
+     */
+    public void itemsMoved(int fromIndex,
+                           int toIndex,
+                           int itemCount) {
+        checkRange(fromIndex, fromIndex + itemCount - 1);
+        checkRange(toIndex, toIndex + itemCount - 1);
+        if (isDatasetChanged || fromIndex == toIndex) {
+            return;
+        }
+        int first = splitAt(fromIndex);
+        int end = splitAt(fromIndex + itemCount);
+        var moved = new ArrayList<>(runs.subList(first, end));
+        runs.subList(first, end).clear();
+        runs.addAll(splitAt(toIndex), moved);
+        normalize();
+    }
+
+    /**
+     * Every row may have changed, any finer grained changes are superseded.
+     */
+    public void datasetChanged() {
+        isDatasetChanged = true;
+    }
+
+    /**
+     * The structure of the data has changed, any other changes are
+     * superseded.
+     */
+    public void dataStructureChanged() {
+        isDatasetChanged = true;
+        isDataStructureChanged = true;
+    }
+
+    /**
+     * Records the changes of a change set made after the changes already
+     * recorded here, as if each had been recorded here in turn.
+     *
+     * @param changes the later changes.
+     */
+    public void addAll(ChangeSet changes) {
+        changes.dispatchTo(asModelListener());
+    }
+
+    /**
+     * @return a listener that records every notification it is sent into
+     * this change set, for example to collect the changes made in a
+     * transaction.
+     */
+    public ModelListener asModelListener() {
+        return new Recorder();
+    }
+
+    // records the notifications it is sent into this change set
+    private class Recorder
+            implements ModelListener {
+
+        @Override
+        public void notifyDatasetChanged() {
+            datasetChanged();
+        }
+
+        @Override
+        public void notifyDataStructureChanged() {
+            dataStructureChanged();
+        }
+
+        @Override
+        public void notifyItemsInserted(int firstIndex,
+                                        int lastIndex) {
+            itemsInserted(firstIndex, lastIndex);
+        }
+
+        @Override
+        public void notifyItemsUpdated(int firstIndex,
+                                       int lastIndex) {
+            itemsUpdated(firstIndex, lastIndex);
+        }
+
+        @Override
+        public void notifyItemUpdated(int index) {
+            itemsUpdated(index, index);
+        }
+
+        @Override
+        public void notifyItemUpdated(int index,
+                                      Object payload) {
+            itemUpdated(index, payload);
+        }
+
+        @Override
+        public void notifyItemsDeleted(int firstIndex,
+                                       int lastIndex) {
+            itemsDeleted(firstIndex, lastIndex);
+        }
+
+        @Override
+        public void notifyItemsMoved(int fromIndex,
+                                     int toIndex,
+                                     int itemCount) {
+            itemsMoved(fromIndex, toIndex, itemCount);
+        }
+    }
+// endregion record changes
+
+    /**
+     * Builds the change set that turns one list into another, given where
+     * each item of the new list came from.
+     *
+     * @param oldSize   the size of the old list.
+     * @param newToOld  the index in the old list of each item in the new list,
+     *                  or -1 for an inserted item.
+     * @param isUpdated the indices in the new list of items whose contents
+     *                  changed.
+     * @return the change set.
+     */
+    static ChangeSet fromMapping(int oldSize,
+                                 int[] newToOld,
+                                 BitSet isUpdated) {
+        var changes = new ChangeSet();
+        changes.runs.clear();
+        changes.deleted.set(0, oldSize);
+        for (int newIndex = 0; newIndex < newToOld.length; newIndex++) {
+            int oldIndex = newToOld[newIndex];
+            if (oldIndex < 0) {
+                changes.append(new Run(true, 0, 1, false));
+            } else {
+                changes.deleted.clear(oldIndex);
+                changes.append(new Run(false, oldIndex, 1, isUpdated.get(newIndex)));
+            }
+        }
+        changes.append(new Run(false, oldSize, Long.MAX_VALUE, false));
+        return changes;
+    }
+
+    // adds a run to the end of the list, merging it with the last run if
+    // possible
+    private void append(Run run) {
+        runs.add(run);
+        int size = runs.size();
+        if (size > 1 && isMergeable(runs.get(size - 2), run)) {
+            merge(size - 1);
+        }
+    }
+
+    /**
+     * @return true if replaying this change set would not notify anything.
+     */
+    public boolean isEmpty() {
+        if (isDatasetChanged || !deleted.isEmpty() || runs.size() != 1) {
+            return false;
+        }
+        Run tail = runs.get(0);
+        return !tail.isInserted && tail.oldStart == 0 && !tail.isUpdated;
+    }
+
+    public void clear() {
+        runs.clear();
+        runs.add(new Run(false, 0, Long.MAX_VALUE, false));
+        deleted.clear();
+        payloads.clear();
+        isDatasetChanged = false;
+        isDataStructureChanged = false;
+    }
+
+    /**
+     * Replays the accumulated changes to the listener as the fewest
+     * notifications that leave it in step with the list.
+     *
+     * @param listener the listener to notify.
+     */
+    public void dispatchTo(ModelListener listener) {
+        if (isDataStructureChanged) {
+            listener.notifyDataStructureChanged();
+            return;
+        }
+        if (isDatasetChanged) {
+            listener.notifyDatasetChanged();
+            return;
+        }
+
+        // deletes, highest first so lower indices are not shifted
+        for (int last = deleted.length() - 1; last >= 0; ) {
+            int first = deleted.previousClearBit(last) + 1;
+            listener.notifyItemsDeleted(first, last);
+            last = deleted.previousSetBit(first - 1);
+        }
+
+        dispatchMoves(listener);
+
+        // inserts, lowest first so every row before them is in place
+        long index = 0;
+        for (Run run : runs) {
+            if (run.isInserted) {
+                listener.notifyItemsInserted((int) index, (int) (index + run.length - 1));
+            }
+            index += run.length;
+        }
+
+        // updates, merging runs that became adjacent through deletes
+        index = 0;
+        long updateStart = -1;
+        for (Run run : runs) {
+            if (run.isUpdated && !payloads.isEmpty()) {
+                // rows updated with payloads break up the range
+                for (int row = 0; row < run.length; row++) {
+                    List<Object> rowPayloads = payloads.get(run.oldStart + row);
+                    if (rowPayloads == null) {
+                        updateStart = updateStart < 0 ? index + row : updateStart;
+                        continue;
+                    }
+                    if (updateStart >= 0) {
+                        notifyUpdated(listener, (int) updateStart, (int) (index + row - 1));
+                        updateStart = -1;
+                    }
+                    for (Object payload : rowPayloads) {
+                        listener.notifyItemUpdated((int) (index + row), payload);
+                    }
+                }
+            } else if (run.isUpdated && updateStart < 0) {
+                updateStart = index;
+            } else if (!run.isUpdated && updateStart >= 0) {
+                notifyUpdated(listener, (int) updateStart, (int) (index - 1));
+                updateStart = -1;
+            }
+            index += run.length;
+        }
+    }
+
+    /*
+    After the deletes the rows left are the original rows in their original
+    order. The runs of them that form the increasing sequence of original
+    positions holding the most rows stay where they are and every other run is moved to
+    just after the run that precedes it in the final order. A prefix sum index
+    over the original order, where each slot holds the rows placed after the
+    run at that position, gives the current index of every run as it moves.
+     */
+    private void dispatchMoves(ModelListener listener) {
+        // the original rows in their final order, without the unbounded tail
+        var oldRuns = new ArrayList<Run>();
+        for (int i = 0; i < runs.size() - 1; i++) {
+            if (!runs.get(i).isInserted) {
+                oldRuns.add(runs.get(i));
+            }
+        }
+        int runCount = oldRuns.size();
+        if (runCount < 2) {
+            return;
+        }
+
+        Integer[] byOldStart = new Integer[runCount];
+        Arrays.setAll(byOldStart, i -> i);
+        Arrays.sort(byOldStart, Comparator.comparingInt(i -> oldRuns.get(i).oldStart));
+        int[] rank = new int[runCount];
+        for (int i = 0; i < runCount; i++) {
+            rank[byOldStart[i]] = i;
+        }
+
+        long[] lengths = new long[runCount];
+        Arrays.setAll(lengths, i -> oldRuns.get(i).length);
+        BitSet isAnchored = heaviestIncreasingSequence(rank, lengths);
+        if (isAnchored.cardinality() == runCount) {
+            return;
+        }
+
+        // slot 0 holds rows moved to the front, slot rank + 1 the run of that
+        // rank followed by the rows moved after it
+        var slots = new PrefixSumIndex(runCount + 1, 0);
+        for (int i = 0; i < runCount; i++) {
+            slots.set(rank[i] + 1, oldRuns.get(i).length);
+        }
+
+        int previousSlot = 0;
+        for (int i = 0; i < runCount; i++) {
+            int slot = rank[i] + 1;
+            if (isAnchored.get(i)) {
+                previousSlot = slot;
+                continue;
+            }
+            int length = (int) oldRuns.get(i).length;
+            int fromIndex = (int) slots.prefixSum(slot);
+            slots.set(slot, 0);
+            int toIndex = (int) slots.prefixSum(previousSlot + 1);
+            slots.set(previousSlot, slots.get(previousSlot) + length);
+            listener.notifyItemsMoved(fromIndex, toIndex, length);
+        }
+    }
+
+    /*
+    The positions of the increasing subsequence of ranks holding the most
+    rows. A Fenwick tree of maximums over the ranks finds the heaviest
+    sequence ending below each rank in O(log n).
+     */
+    private static BitSet heaviestIncreasingSequence(int[] rank,
+                                                     long[] weight) {
+        int size = rank.length;
+        long[] best = new long[size];
+        int[] previous = new int[size];
+        // one based, holding the position of the heaviest sequence ending at
+        // or below each rank
+        int[] tree = new int[size + 1];
+        Arrays.fill(tree, -1);
+        int last = -1;
+        for (int i = 0; i < size; i++) {
+            int before = -1;
+            for (int r = rank[i]; r > 0; r -= r & -r) {
+                if (tree[r] >= 0 && (before < 0 || best[tree[r]] > best[before])) {
+                    before = tree[r];
+                }
+            }
+            best[i] = weight[i] + (before < 0 ? 0 : best[before]);
+            previous[i] = before;
+            for (int r = rank[i] + 1; r <= size; r += r & -r) {
+                if (tree[r] < 0 || best[i] > best[tree[r]]) {
+                    tree[r] = i;
+                }
+            }
+            if (last < 0 || best[i] > best[last]) {
+                last = i;
+            }
+        }
+        var sequence = new BitSet(size);
+        for (int i = last; i >= 0; i = previous[i]) {
+            sequence.set(i);
+        }
+        return sequence;
+    }
+
+    private static void notifyUpdated(ModelListener listener,
+                                      int firstIndex,
+                                      int lastIndex) {
+        if (firstIndex == lastIndex) {
+            listener.notifyItemUpdated(firstIndex);
+        } else {
+            listener.notifyItemsUpdated(firstIndex, lastIndex);
+        }
+    }
+
+    // splits the run containing the index so a run starts at it, returning
+    // the position of that run.
+    private int splitAt(int index) {
+        long start = 0;
+        for (int i = 0; i < runs.size(); i++) {
+            Run run = runs.get(i);
+            if (start == index) {
+                return i;
+            }
+            long end = run.length == Long.MAX_VALUE ? Long.MAX_VALUE : start + run.length;
+            if (index < end) {
+                long headLength = index - start;
+                int tailOldStart = run.isInserted ? 0 : run.oldStart + (int) headLength;
+                long tailLength = run.length == Long.MAX_VALUE
+                        ? Long.MAX_VALUE
+                        : run.length - headLength;
+                run.length = headLength;
+                runs.add(i + 1, new Run(run.isInserted, tailOldStart, tailLength, run.isUpdated));
+                return i + 1;
+            }
+            start = end;
+        }
+        // unreachable, the last run is unbounded
+        throw new IllegalStateException("index=" + index + " is beyond the list");
+    }
+
+    // merges adjacent runs that can be represented as one
+    private void normalize() {
+        for (int i = runs.size() - 1; i > 0; i--) {
+            if (isMergeable(runs.get(i - 1), runs.get(i))) {
+                merge(i);
+            }
+        }
+    }
+
+    private static boolean isMergeable(Run previous,
+                                       Run run) {
+        return previous.isInserted == run.isInserted &&
+                previous.isUpdated == run.isUpdated &&
+                (run.isInserted || previous.oldStart + previous.length == run.oldStart);
+    }
+
+    // merges the run at the position into the run before it
+    private void merge(int position) {
+        Run previous = runs.get(position - 1);
+        Run run = runs.remove(position);
+        previous.length = run.length == Long.MAX_VALUE
+                ? Long.MAX_VALUE
+                : previous.length + run.length;
+    }
+
+    private static void checkRange(int firstIndex,
+                                   int lastIndex) {
+        if (firstIndex < 0 || lastIndex < firstIndex) {
+            throw new IllegalArgumentException(
+                    "invalid range firstIndex=" + firstIndex + " lastIndex=" + lastIndex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeSet{" +
+                "runs=" + runs +
+                ", deleted=" + deleted +
+                ", payloads=" + payloads +
+                ", isDatasetChanged=" + isDatasetChanged +
+                ", isDataStructureChanged=" + isDataStructureChanged +
+                '}';
+    }
+}
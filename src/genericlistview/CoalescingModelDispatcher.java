@@ -0,0 +1,170 @@
+package genericlistview;
+
+import utils.Trace;
+import utils.Trace.Subsystem;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fans {@link ModelListener} notifications out to a set of listeners, once
+ * per event dispatch thread tick. Changes arriving during a tick are
+ * collected in a {@link ChangeSet} and a single flush is queued behind them
+ * with {@link SwingUtilities#invokeLater(Runnable)}. The flush hands each
+ * listener the merged batch through
+ * {@link ModelListener#notifyChanges(ChangeSet)}, so a keystroke, or a loop
+ * updating a hundred rows, costs each listener one batch instead of one call
+ * per row.
+ * <p>
+ * The data source must already reflect every change when it notifies the
+ * dispatcher, listeners only ever see the merged result. Call
+ * {@link #flush()} to deliver the pending changes straight away, and
+ * {@link #setCoalescing(boolean)} to turn batching off altogether.
+ * <p>
+ * This class is not thread safe, notifications are expected on the event
+ * dispatch thread.
+ */
+public class CoalescingModelDispatcher
+        implements ModelListener {
+
+    private static final String TAG = "CoalescingModelDispatcher" + ": ";
+
+    private final List<ModelListener> listeners;
+    private ChangeSet pendingChanges;
+
+    private boolean isCoalescing;
+    private boolean isFlushScheduled;
+
+    public CoalescingModelDispatcher() {
+        listeners = new ArrayList<>();
+        pendingChanges = new ChangeSet();
+        isCoalescing = true;
+    }
+
+    public void addModelListener(ModelListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeModelListener(ModelListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getListenerCount() {
+        return listeners.size();
+    }
+
+    public boolean isCoalescing() {
+        return isCoalescing;
+    }
+
+    /**
+     * @param isCoalescing false to deliver each change as soon as it is
+     *                     notified, delivering anything already pending.
+     */
+    public void setCoalescing(boolean isCoalescing) {
+        this.isCoalescing = isCoalescing;
+        if (!isCoalescing) {
+            flush();
+        }
+    }
+
+    /**
+     * Delivers the pending changes to every listener, if there are any.
+     */
+    public void flush() {
+        isFlushScheduled = false;
+        if (pendingChanges.isEmpty()) {
+            pendingChanges.clear();
+            return;
+        }
+        Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                "flush: " + pendingChanges + " to " + listeners.size() + " listeners");
+
+        // a listener may notify further changes, these start a new batch
+        var changes = pendingChanges;
+        pendingChanges = new ChangeSet();
+        new ArrayList<>(listeners).forEach(listener -> listener.notifyChanges(changes));
+    }
+
+    private void changed() {
+        if (!isCoalescing) {
+            flush();
+        } else if (!isFlushScheduled) {
+            isFlushScheduled = true;
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+// region implements ModelListener
+    @Override
+    public void notifyDatasetChanged() {
+        pendingChanges.datasetChanged();
+        changed();
+    }
+
+    @Override
+    public void notifyDataStructureChanged() {
+        pendingChanges.dataStructureChanged();
+        changed();
+    }
+
+    @Override
+    public void notifyItemsInserted(int firstIndex,
+                                    int lastIndex) {
+        pendingChanges.itemsInserted(firstIndex, lastIndex);
+        changed();
+    }
+
+    @Override
+    public void notifyItemsUpdated(int firstIndex,
+                                   int lastIndex) {
+        pendingChanges.itemsUpdated(firstIndex, lastIndex);
+        changed();
+    }
+
+    @Override
+    public void notifyItemUpdated(int index) {
+        notifyItemsUpdated(index, index);
+    }
+
+    @Override
+    public void notifyItemUpdated(int index,
+                                  Object payload) {
+        pendingChanges.itemUpdated(index, payload);
+        changed();
+    }
+
+    @Override
+    public void notifyItemsDeleted(int firstIndex,
+                                   int lastIndex) {
+        pendingChanges.itemsDeleted(firstIndex, lastIndex);
+        changed();
+    }
+
+    @Override
+    public void notifyItemsMoved(int fromIndex,
+                                 int toIndex,
+                                 int itemCount) {
+        pendingChanges.itemsMoved(fromIndex, toIndex, itemCount);
+        changed();
+    }
+
+    /**
+     * Queues a batch of changes made by the data source, for example the
+     * result of a {@link ListDiff}. The dispatcher takes ownership of the
+     * change set.
+     *
+     * @param changes the changes made since the last notification.
+     */
+    @Override
+    public void notifyChanges(ChangeSet changes) {
+        if (pendingChanges.isEmpty()) {
+            pendingChanges = changes;
+            changed();
+        } else {
+            changes.dispatchTo(this);
+        }
+    }
+// endregion implements ModelListener
+}
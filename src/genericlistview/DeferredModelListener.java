@@ -0,0 +1,199 @@
+package genericlistview;
+
+import utils.Trace;
+import utils.Trace.Subsystem;
+
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+
+/**
+ * Wraps a {@link ModelListener} whose view may be hidden, for example in a
+ * closed window or an unselected tab. While the component is showing,
+ * notifications are passed straight through. While it is not, they are
+ * merged into a {@link ChangeSet} and replayed to the listener as a single
+ * batch through {@link ModelListener#notifyChanges(ChangeSet)} as soon as the
+ * component is showing again, before it is next painted. A hidden view so
+ * costs nothing per change, however many changes it misses.
+ * <p>
+ * Register the wrapper with the data source in place of the listener, and
+ * call {@link #dispose()} once it is removed.
+ * <p>
+ * This class is not thread safe, notifications are expected on the event
+ * dispatch thread.
+ */
+public class DeferredModelListener
+        implements ModelListener,
+        HierarchyListener {
+
+    private static final String TAG = "DeferredModelListener" + ": ";
+
+    private final ModelListener listener;
+    private final Component component;
+    private ChangeSet pendingChanges;
+
+    /**
+     * @param listener  the listener to notify.
+     * @param component the component the listener updates, changes are
+     *                  deferred while it is not showing.
+     */
+    public DeferredModelListener(ModelListener listener,
+                                 Component component) {
+        this.listener = listener;
+        this.component = component;
+        pendingChanges = new ChangeSet();
+        component.addHierarchyListener(this);
+    }
+
+    /**
+     * Stops following the component, delivering any deferred changes.
+     */
+    public void dispose() {
+        component.removeHierarchyListener(this);
+        flush();
+    }
+
+    public ModelListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return true if changes are being deferred, as the component is not
+     * showing.
+     */
+    public boolean isDeferring() {
+        return !component.isShowing();
+    }
+
+    @Override
+    public void hierarchyChanged(HierarchyEvent e) {
+        if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && component.isShowing()) {
+            flush();
+        }
+    }
+
+    // delivers the deferred changes as one batch
+    private void flush() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        Trace.log(Subsystem.LIST_VIEW, TAG, () -> "flush: " + pendingChanges + " to " + listener);
+
+        var changes = pendingChanges;
+        pendingChanges = new ChangeSet();
+        listener.notifyChanges(changes);
+    }
+
+    // true if the change should be passed on now, after any deferred changes
+    private boolean isDelivering() {
+        if (isDeferring()) {
+            return false;
+        }
+        flush();
+        return true;
+    }
+
+// region implements ModelListener
+    @Override
+    public void notifyDatasetChanged() {
+        if (isDelivering()) {
+            listener.notifyDatasetChanged();
+        } else {
+            pendingChanges.datasetChanged();
+        }
+    }
+
+    @Override
+    public void notifyDataStructureChanged() {
+        if (isDelivering()) {
+            listener.notifyDataStructureChanged();
+        } else {
+            pendingChanges.dataStructureChanged();
+        }
+    }
+
+    @Override
+    public void notifyItemsInserted(int firstIndex,
+                                    int lastIndex) {
+        if (isDelivering()) {
+            listener.notifyItemsInserted(firstIndex, lastIndex);
+        } else {
+            pendingChanges.itemsInserted(firstIndex, lastIndex);
+        }
+    }
+
+    @Override
+    public void notifyItemsUpdated(int firstIndex,
+                                   int lastIndex) {
+        if (isDelivering()) {
+            listener.notifyItemsUpdated(firstIndex, lastIndex);
+        } else {
+            pendingChanges.itemsUpdated(firstIndex, lastIndex);
+        }
+    }
+
+    @Override
+    public void notifyItemUpdated(int index) {
+        if (isDelivering()) {
+            listener.notifyItemUpdated(index);
+        } else {
+            pendingChanges.itemsUpdated(index, index);
+        }
+    }
+
+    @Override
+    public void notifyItemUpdated(int index,
+                                  Object payload) {
+        if (isDelivering()) {
+            listener.notifyItemUpdated(index, payload);
+        } else {
+            pendingChanges.itemUpdated(index, payload);
+        }
+    }
+
+    @Override
+    public void notifyItemsDeleted(int firstIndex,
+                                   int lastIndex) {
+        if (isDelivering()) {
+            listener.notifyItemsDeleted(firstIndex, lastIndex);
+        } else {
+            pendingChanges.itemsDeleted(firstIndex, lastIndex);
+        }
+    }
+
+    @Override
+    public void notifyItemsMoved(int fromIndex,
+                                 int toIndex,
+                                 int itemCount) {
+        if (isDelivering()) {
+            listener.notifyItemsMoved(fromIndex, toIndex, itemCount);
+        } else {
+            pendingChanges.itemsMoved(fromIndex, toIndex, itemCount);
+        }
+    }
+
+    /**
+     * A batch is passed on whole while the component is showing. Otherwise
+     * it is merged into the deferred changes, the batch itself may be shared
+     * with other listeners so is never kept.
+     *
+     * @param changes the changes made since the last batch.
+     */
+    @Override
+    public void notifyChanges(ChangeSet changes) {
+        if (isDelivering()) {
+            listener.notifyChanges(changes);
+        } else {
+            changes.dispatchTo(this);
+        }
+    }
+// endregion implements ModelListener
+
+    @Override
+    public String toString() {
+        return "DeferredModelListener{" +
+                "listener=" + listener +
+                ", pendingChanges=" + pendingChanges +
+                '}';
+    }
+}
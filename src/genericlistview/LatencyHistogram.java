@@ -0,0 +1,172 @@
+package genericlistview;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free latency histogram with power of two buckets. Recording a
+ * latency is a handful of atomic increments, so it is cheap enough to leave
+ * on in the render pipeline. Percentiles are approximated by the upper bound
+ * of the bucket they fall in, which is within a factor of two of the true
+ * value.
+ */
+public class LatencyHistogram {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "LatencyHistogram" + ": ";
+
+    // bucket i holds latencies in [2^i, 2^(i+1)) nanoseconds, bucket 0 also
+    // holds zero
+    private static final int BUCKET_COUNT = 63;
+
+    /**
+     * An immutable copy of a histogram's statistics. All times are in
+     * nanoseconds.
+     */
+    public static final class Snapshot {
+
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+
+        @ConstructorProperties({
+                "count", "totalNanos", "maxNanos", "p50Nanos", "p90Nanos", "p99Nanos"
+        })
+        public Snapshot(long count,
+                        long totalNanos,
+                        long maxNanos,
+                        long p50Nanos,
+                        long p90Nanos,
+                        long p99Nanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "count=" + count +
+                    ", meanNanos=" + getMeanNanos() +
+                    ", p50Nanos=" + p50Nanos +
+                    ", p90Nanos=" + p90Nanos +
+                    ", p99Nanos=" + p99Nanos +
+                    ", maxNanos=" + maxNanos +
+                    '}';
+        }
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param nanos the latency to record, negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long latency = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(latency));
+        count.incrementAndGet();
+        totalNanos.addAndGet(latency);
+        maxNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Records the time elapsed since a start time.
+     *
+     * @param startNanos a value previously returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        long max = maxNanos.get();
+        return new Snapshot(
+                total,
+                totalNanos.get(),
+                max,
+                percentile(counts, total, 0.50, max),
+                percentile(counts, total, 0.90, max),
+                percentile(counts, total, 0.99, max)
+        );
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private static int bucketOf(long nanos) {
+        return nanos == 0 ? 0 : Math.min(BUCKET_COUNT - 1, 63 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    private static long percentile(long[] counts,
+                                   long total,
+                                   double fraction,
+                                   long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long upperBound = (1L << (i + 1)) - 1;
+                return Math.min(upperBound, max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,184 @@
+package genericlistview;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Calculates the changes that turn one list into another, so a refreshed
+ * data set can be notified as the few rows that were inserted, deleted,
+ * moved or updated instead of as a whole new data set.
+ * <p>
+ * This is Heckel's algorithm, which runs in O(n) and detects moves. Items
+ * that occur exactly once in each list are matched first, then the matches
+ * are grown into the unmatched items either side of them. Items are the same
+ * item when their keys are equal, and an item whose key matches but which is
+ * not {@link Object#equals(Object)} to its old self is reported as updated.
+ * When the items are their own key, unmatched items sitting between matched
+ * neighbours are also paired up as updates, which is how an edited record
+ * shows up. Duplicated items that cannot be matched through a neighbour are
+ * reported as deleted and inserted.
+ * <p>
+ * When more than half the rows changed, the result is simply a data set
+ * change, as notifying every row individually would cost more than
+ * refreshing them all.
+ */
+public final class ListDiff {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "ListDiff" + ": ";
+
+    private ListDiff() {}
+
+    // how often a key occurs in each list and where it was seen last
+    private static final class Occurrence {
+        int oldCount;
+        int newCount;
+        int oldIndex;
+        int newIndex;
+    }
+
+    /**
+     * @param oldList the list as it was.
+     * @param newList the list as it is now.
+     * @param <T>     the type of the items.
+     * @return the changes that turn the old list into the new list.
+     */
+    public static <T> ChangeSet calculate(List<T> oldList,
+                                          List<T> newList) {
+        return calculate(oldList, newList, Function.identity(), true);
+    }
+
+    /**
+     * @param oldList the list as it was.
+     * @param newList the list as it is now.
+     * @param keyOf   identifies an item, usually by its id, so an item is
+     *                matched to its old self even when its contents change.
+     * @param <T>     the type of the items.
+     * @return the changes that turn the old list into the new list.
+     */
+    public static <T> ChangeSet calculate(List<T> oldList,
+                                          List<T> newList,
+                                          Function<? super T, ?> keyOf) {
+        return calculate(oldList, newList, keyOf, false);
+    }
+
+    private static <T> ChangeSet calculate(List<T> oldList,
+                                           List<T> newList,
+                                           Function<? super T, ?> keyOf,
+                                           boolean isPairingNeighbours) {
+        int oldSize = oldList.size();
+        int newSize = newList.size();
+        Object[] oldKeys = new Object[oldSize];
+        Object[] newKeys = new Object[newSize];
+        int[] oldToNew = new int[oldSize];
+        int[] newToOld = new int[newSize];
+        Arrays.fill(oldToNew, -1);
+        Arrays.fill(newToOld, -1);
+
+        // match the items that occur exactly once in each list
+        var occurrences = new HashMap<Object, Occurrence>(Math.max(16, newSize * 2));
+        for (int i = 0; i < newSize; i++) {
+            newKeys[i] = keyOf.apply(newList.get(i));
+            var occurrence = occurrences.computeIfAbsent(newKeys[i], key -> new Occurrence());
+            occurrence.newCount++;
+            occurrence.newIndex = i;
+        }
+        for (int i = 0; i < oldSize; i++) {
+            oldKeys[i] = keyOf.apply(oldList.get(i));
+            var occurrence = occurrences.get(oldKeys[i]);
+            if (occurrence != null) {
+                occurrence.oldCount++;
+                occurrence.oldIndex = i;
+            }
+        }
+        for (var occurrence : occurrences.values()) {
+            if (occurrence.oldCount == 1 && occurrence.newCount == 1) {
+                oldToNew[occurrence.oldIndex] = occurrence.newIndex;
+                newToOld[occurrence.newIndex] = occurrence.oldIndex;
+            }
+        }
+
+        // grow the matches into neighbours with the same key
+        growMatches(oldKeys, newKeys, oldToNew, newToOld, true);
+        if (isPairingNeighbours) {
+            growMatches(oldKeys, newKeys, oldToNew, newToOld, false);
+        }
+
+        // count the changes, each break in the run of old indices is a move
+        // or the edge of an insert or delete
+        var isUpdated = new BitSet(newSize);
+        int changeCount = 0;
+        for (int i = 0; i < newSize; i++) {
+            int oldIndex = newToOld[i];
+            if (oldIndex < 0) {
+                changeCount++;
+                continue;
+            }
+            if (!Objects.equals(oldList.get(oldIndex), newList.get(i))) {
+                isUpdated.set(i);
+                changeCount++;
+            }
+            if (i > 0 && newToOld[i - 1] >= 0 && newToOld[i - 1] + 1 != oldIndex) {
+                changeCount++;
+            }
+        }
+        for (int i = 0; i < oldSize; i++) {
+            if (oldToNew[i] < 0) {
+                changeCount++;
+            }
+        }
+
+        if (changeCount > Math.max(oldSize, newSize) / 2) {
+            var changes = new ChangeSet();
+            changes.datasetChanged();
+            return changes;
+        }
+        return ChangeSet.fromMapping(oldSize, newToOld, isUpdated);
+    }
+
+    /*
+    Pairs the unmatched items either side of each match, first working forward
+    from the start of the lists and then backward from their ends. The start
+    and end of the lists count as matched, so a run of items that only differs
+    at one end is still matched.
+     */
+    private static void growMatches(Object[] oldKeys,
+                                    Object[] newKeys,
+                                    int[] oldToNew,
+                                    int[] newToOld,
+                                    boolean isKeyRequired) {
+        for (int i = 0; i < newKeys.length; i++) {
+            int oldIndex = i == 0 ? 0 : newToOld[i - 1] + 1;
+            if ((i == 0 || newToOld[i - 1] >= 0) && newToOld[i] < 0) {
+                pairIfUnmatched(oldKeys, newKeys, oldToNew, newToOld, oldIndex, i, isKeyRequired);
+            }
+        }
+        for (int i = newKeys.length - 1; i >= 0; i--) {
+            boolean isLast = i == newKeys.length - 1;
+            int oldIndex = isLast ? oldKeys.length - 1 : newToOld[i + 1] - 1;
+            if ((isLast || newToOld[i + 1] >= 0) && newToOld[i] < 0) {
+                pairIfUnmatched(oldKeys, newKeys, oldToNew, newToOld, oldIndex, i, isKeyRequired);
+            }
+        }
+    }
+
+    private static void pairIfUnmatched(Object[] oldKeys,
+                                        Object[] newKeys,
+                                        int[] oldToNew,
+                                        int[] newToOld,
+                                        int oldIndex,
+                                        int newIndex,
+                                        boolean isKeyRequired) {
+        if (oldIndex < 0 || oldIndex >= oldKeys.length || oldToNew[oldIndex] >= 0) {
+            return;
+        }
+        if (!isKeyRequired || Objects.equals(oldKeys[oldIndex], newKeys[newIndex])) {
+            oldToNew[oldIndex] = newIndex;
+            newToOld[newIndex] = oldIndex;
+        }
+    }
+}
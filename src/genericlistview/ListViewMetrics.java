@@ -0,0 +1,271 @@
+package genericlistview;
+
+import genericlistview.LatencyHistogram.Snapshot;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records how long each stage of the {@link AbstractGenericListView} render
+ * pipeline takes: creating, binding and measuring view holders, painting the
+ * table, starting and stopping the editor and handling table model events.
+ * The figures can be read programmatically with {@link #getSnapshot()} or
+ * published to the platform MBean server with {@link #register(String)}, so
+ * frame budgets can be watched with any JMX console.
+ * <p>
+ * Latencies and pool counters are recorded on the event dispatch thread and
+ * may be read from any thread. Both are held in atomics, so a JMX reading is
+ * never torn, though the figures are not read at a single instant.
+ * <p>
+ * A registered MBean is held by the platform MBean server, and holds the
+ * pool and through it the views, so call {@link #unregister()} once the list
+ * view is disposed.
+ */
+public class ListViewMetrics
+        implements ListViewMetricsMXBean {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "ListViewMetrics" + ": ";
+
+    public static final String DOMAIN = "genericlistview";
+
+    /**
+     * An immutable copy of every metric at a point in time.
+     */
+    public static final class MetricsSnapshot {
+
+        private final Snapshot createLatency;
+        private final Snapshot bindLatency;
+        private final Snapshot measureLatency;
+        private final Snapshot paintLatency;
+        private final Snapshot editorStartLatency;
+        private final Snapshot editorStopLatency;
+        private final Snapshot tableChangedLatency;
+        private final long poolHitCount;
+        private final long poolMissCount;
+        private final long poolRecycleCount;
+        private final long poolEvictionCount;
+
+        private MetricsSnapshot(ListViewMetrics metrics) {
+            createLatency = metrics.getCreateLatency();
+            bindLatency = metrics.getBindLatency();
+            measureLatency = metrics.getMeasureLatency();
+            paintLatency = metrics.getPaintLatency();
+            editorStartLatency = metrics.getEditorStartLatency();
+            editorStopLatency = metrics.getEditorStopLatency();
+            tableChangedLatency = metrics.getTableChangedLatency();
+            poolHitCount = metrics.getPoolHitCount();
+            poolMissCount = metrics.getPoolMissCount();
+            poolRecycleCount = metrics.getPoolRecycleCount();
+            poolEvictionCount = metrics.getPoolEvictionCount();
+        }
+
+        public Snapshot getCreateLatency() {
+            return createLatency;
+        }
+
+        public Snapshot getBindLatency() {
+            return bindLatency;
+        }
+
+        public Snapshot getMeasureLatency() {
+            return measureLatency;
+        }
+
+        public Snapshot getPaintLatency() {
+            return paintLatency;
+        }
+
+        public Snapshot getEditorStartLatency() {
+            return editorStartLatency;
+        }
+
+        public Snapshot getEditorStopLatency() {
+            return editorStopLatency;
+        }
+
+        public Snapshot getTableChangedLatency() {
+            return tableChangedLatency;
+        }
+
+        public long getPoolHitCount() {
+            return poolHitCount;
+        }
+
+        public long getPoolMissCount() {
+            return poolMissCount;
+        }
+
+        public long getPoolRecycleCount() {
+            return poolRecycleCount;
+        }
+
+        public long getPoolEvictionCount() {
+            return poolEvictionCount;
+        }
+
+        @Override
+        public String toString() {
+            return "MetricsSnapshot{" +
+                    "create=" + createLatency +
+                    ", bind=" + bindLatency +
+                    ", measure=" + measureLatency +
+                    ", paint=" + paintLatency +
+                    ", editorStart=" + editorStartLatency +
+                    ", editorStop=" + editorStopLatency +
+                    ", tableChanged=" + tableChangedLatency +
+                    ", poolHits=" + poolHitCount +
+                    ", poolMisses=" + poolMissCount +
+                    ", poolRecycles=" + poolRecycleCount +
+                    ", poolEvictions=" + poolEvictionCount +
+                    '}';
+        }
+    }
+
+    final LatencyHistogram create = new LatencyHistogram();
+    final LatencyHistogram bind = new LatencyHistogram();
+    final LatencyHistogram measure = new LatencyHistogram();
+    final LatencyHistogram paint = new LatencyHistogram();
+    final LatencyHistogram editorStart = new LatencyHistogram();
+    final LatencyHistogram editorStop = new LatencyHistogram();
+    final LatencyHistogram tableChanged = new LatencyHistogram();
+
+    private final RecycledViewPool<?> pool;
+    private ObjectName objectName;
+
+    /**
+     * @param pool the pool whose hit, miss, recycle and eviction counters
+     *             are reported.
+     */
+    public ListViewMetrics(RecycledViewPool<?> pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Publishes these metrics to the platform MBean server under
+     * <code>genericlistview:type=ListViewMetrics,name=&lt;name&gt;</code>.
+     * Registering again replaces the previous registration.
+     *
+     * @param name identifies the list view, unique within the application.
+     * @throws IllegalStateException if the name is already in use by another
+     *                               list view, or is not a valid name.
+     */
+    public synchronized void register(String name) {
+        unregister();
+        try {
+            var objectName = new ObjectName(DOMAIN +
+                    ":type=ListViewMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (MalformedObjectNameException |
+                InstanceAlreadyExistsException |
+                MBeanRegistrationException |
+                NotCompliantMBeanException e) {
+            throw new IllegalStateException("unable to register metrics as " + name, e);
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if registered.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            // already gone, nothing left to clean up
+        }
+        objectName = null;
+    }
+
+    /**
+     * @return the name these metrics are published under, or null if they
+     * are not published.
+     */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    public MetricsSnapshot getSnapshot() {
+        return new MetricsSnapshot(this);
+    }
+
+    @Override
+    public Snapshot getCreateLatency() {
+        return create.snapshot();
+    }
+
+    @Override
+    public Snapshot getBindLatency() {
+        return bind.snapshot();
+    }
+
+    @Override
+    public Snapshot getMeasureLatency() {
+        return measure.snapshot();
+    }
+
+    @Override
+    public Snapshot getPaintLatency() {
+        return paint.snapshot();
+    }
+
+    @Override
+    public Snapshot getEditorStartLatency() {
+        return editorStart.snapshot();
+    }
+
+    @Override
+    public Snapshot getEditorStopLatency() {
+        return editorStop.snapshot();
+    }
+
+    @Override
+    public Snapshot getTableChangedLatency() {
+        return tableChanged.snapshot();
+    }
+
+    @Override
+    public long getPoolHitCount() {
+        return pool.getHitCount();
+    }
+
+    @Override
+    public long getPoolMissCount() {
+        return pool.getMissCount();
+    }
+
+    @Override
+    public long getPoolRecycleCount() {
+        return pool.getRecycleCount();
+    }
+
+    @Override
+    public long getPoolEvictionCount() {
+        return pool.getEvictionCount();
+    }
+
+    @Override
+    public void reset() {
+        create.reset();
+        bind.reset();
+        measure.reset();
+        paint.reset();
+        editorStart.reset();
+        editorStop.reset();
+        tableChanged.reset();
+        pool.resetCounters();
+    }
+
+    @Override
+    public String toString() {
+        return getSnapshot().toString();
+    }
+}
@@ -0,0 +1,35 @@
+package genericlistview;
+
+import genericlistview.LatencyHistogram.Snapshot;
+
+/**
+ * The management interface of {@link ListViewMetrics}, as published to JMX.
+ * Each latency is reported as a composite of its count, mean, percentiles
+ * and maximum, in nanoseconds.
+ */
+public interface ListViewMetricsMXBean {
+
+    Snapshot getCreateLatency();
+
+    Snapshot getBindLatency();
+
+    Snapshot getMeasureLatency();
+
+    Snapshot getPaintLatency();
+
+    Snapshot getEditorStartLatency();
+
+    Snapshot getEditorStopLatency();
+
+    Snapshot getTableChangedLatency();
+
+    long getPoolHitCount();
+
+    long getPoolMissCount();
+
+    long getPoolRecycleCount();
+
+    long getPoolEvictionCount();
+
+    void reset();
+}
@@ -20,6 +20,55 @@ public interface ModelListener {
 
     void notifyItemUpdated(int index);
 
+    /**
+     * A single item has been updated, and the payload describes what changed,
+     * for example the fields that were edited, so a view already showing the
+     * item need only update those parts. Payloads are only a hint, a listener
+     * that cannot use them treats the item as updated in full, which is what
+     * the default implementation does.
+     *
+     * @param index   the index of the updated item.
+     * @param payload what changed in the item, or null if it may have
+     *                changed entirely.
+     */
+    default void notifyItemUpdated(int index,
+                                   Object payload) {
+        notifyItemUpdated(index);
+    }
+
     void notifyItemsDeleted(int firstIndex,
                             int lastIndex);
+
+    /**
+     * A range of items has moved, without their contents changing.
+     *
+     * @param fromIndex the index of the first item before the move.
+     * @param toIndex   the index of the first item after the move.
+     * @param itemCount the number of items moved.
+     */
+    void notifyItemsMoved(int fromIndex,
+                          int toIndex,
+                          int itemCount);
+
+    /**
+     * Convenience method for {@link #notifyItemsMoved(int, int, int)}.
+     *
+     * @param fromIndex the index of the item before the move.
+     * @param toIndex   the index of the item after the move.
+     */
+    default void notifyItemMoved(int fromIndex,
+                                 int toIndex) {
+        notifyItemsMoved(fromIndex, toIndex, 1);
+    }
+
+    /**
+     * Called with a batch of changes merged by a
+     * {@link CoalescingModelDispatcher}. By default the batch is replayed
+     * through the other methods of this interface.
+     *
+     * @param changes the changes made since the last batch.
+     */
+    default void notifyChanges(ChangeSet changes) {
+        changes.dispatchTo(this);
+    }
 }
@@ -40,4 +40,9 @@ public abstract class ModelListenerAdapter
     @Override
     public void notifyItemsDeleted(int firstIndex,
                                    int lastIndex) {}
+
+    @Override
+    public void notifyItemsMoved(int fromIndex,
+                                 int toIndex,
+                                 int itemCount) {}
 }
@@ -0,0 +1,337 @@
+package genericlistview;
+
+import utils.Trace;
+import utils.Trace.Subsystem;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.ToLongFunction;
+
+/**
+ * A data source for lists too large to hold in memory. The total number of
+ * items is known up front, but the items themselves are fetched in fixed
+ * size pages, on a background executor, the first time a row in the page is
+ * asked for. While a page is in flight {@link #get(int)} returns null and the
+ * list view should bind a placeholder. When the page arrives the listeners
+ * are told its rows were updated, so the rows rebind with the real items.
+ * <p>
+ * Loaded pages are kept in least recently used order and evicted once their
+ * estimated size exceeds the memory budget. An evicted page is simply
+ * fetched again the next time one of its rows is rendered.
+ * <p>
+ * This class is not thread safe, it is designed to be used on the event
+ * dispatch thread. Only the {@link PageLoader} runs on the executor.
+ *
+ * @param <T> the type of the items.
+ */
+public class PagedDataSource<T> {
+
+    private static final String TAG = "PagedDataSource" + ": ";
+
+    /**
+     * Fetches a page of items, called on the executor.
+     *
+     * @param <T> the type of the items.
+     */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        /**
+         * @param offset the index of the first item in the page.
+         * @param count  the number of items in the page, less than the page
+         *               size for the last page.
+         * @return the items, in order.
+         * @throws Exception if the page could not be loaded, it will be
+         *                   requested again the next time it is rendered.
+         */
+        List<T> loadPage(int offset,
+                         int count) throws Exception;
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final long DEFAULT_MEMORY_BUDGET = 32L * 1024 * 1024;
+    public static final long DEFAULT_ITEM_SIZE = 256;
+
+    private static final class Page<T> {
+        final List<T> items;
+        final long size;
+
+        Page(List<T> items,
+             long size) {
+            this.items = items;
+            this.size = size;
+        }
+    }
+
+    private final PageLoader<T> loader;
+    private final Executor executor;
+    private final int pageSize;
+    private final long memoryBudget;
+    private final ToLongFunction<? super T> sizeEstimator;
+
+    // loaded pages in least recently used order, keyed by page number
+    private final LinkedHashMap<Integer, Page<T>> pages;
+    private final Set<Integer> pagesInFlight;
+    private final List<ModelListener> modelListeners;
+
+    private int itemCount;
+    private long memoryUsed;
+    // incremented by reset, so pages requested before it are dropped
+    private long generation;
+
+    private PagedDataSource(Builder<T> builder) {
+        loader = builder.loader;
+        executor = builder.executor != null ? builder.executor : newPageExecutor();
+        pageSize = builder.pageSize;
+        memoryBudget = builder.memoryBudget;
+        sizeEstimator = builder.sizeEstimator;
+        itemCount = builder.itemCount;
+        pages = new LinkedHashMap<>(16, 0.75f, true);
+        pagesInFlight = new HashSet<>();
+        modelListeners = new ArrayList<>();
+    }
+
+    private static Executor newPageExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "PagedDataSource");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Gets an item if its page is loaded, otherwise requests the page.
+     *
+     * @param index the index of the item.
+     * @return the item, or null if its page is not loaded yet.
+     */
+    public T get(int index) {
+        if (index < 0 || index >= itemCount) {
+            throw new IndexOutOfBoundsException("index=" + index + " itemCount=" + itemCount);
+        }
+        int pageNumber = index / pageSize;
+        Page<T> page = pages.get(pageNumber);
+        if (page == null) {
+            requestPage(pageNumber);
+            return null;
+        }
+        return page.items.get(index - pageNumber * pageSize);
+    }
+
+    /**
+     * @param index the index of the item.
+     * @return true if the page holding the item is loaded. Does not affect
+     * the eviction order.
+     */
+    public boolean isLoaded(int index) {
+        return pages.containsKey(index / pageSize);
+    }
+
+    /**
+     * Drops every loaded page, and any page in flight, for example after the
+     * data has changed at its source.
+     *
+     * @param itemCount the new total number of items.
+     */
+    public void reset(int itemCount) {
+        if (itemCount < 0) {
+            throw new IllegalArgumentException("itemCount may not be negative");
+        }
+        generation++;
+        pages.clear();
+        pagesInFlight.clear();
+        memoryUsed = 0;
+        this.itemCount = itemCount;
+        modelListeners.forEach(ModelListener::notifyDatasetChanged);
+    }
+
+    private void requestPage(int pageNumber) {
+        if (!pagesInFlight.add(pageNumber)) {
+            return;
+        }
+        long requested = generation;
+        int offset = pageNumber * pageSize;
+        int count = Math.min(pageSize, itemCount - offset);
+
+        if (Trace.isEnabled(Subsystem.LIST_VIEW)) {
+            Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                    "requestPage: page=" + pageNumber + " offset=" + offset + " count=" + count);
+        }
+
+        executor.execute(() -> {
+            List<T> items;
+            try {
+                items = List.copyOf(loader.loadPage(offset, count));
+            } catch (Exception e) {
+                Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                        "requestPage: page=" + pageNumber + " failed: " + e);
+                items = null;
+            }
+            List<T> loaded = items;
+            SwingUtilities.invokeLater(() -> onPageLoaded(requested, pageNumber, loaded));
+        });
+    }
+
+    private void onPageLoaded(long requested,
+                              int pageNumber,
+                              List<T> items) {
+        if (requested != generation) {
+            return;
+        }
+        pagesInFlight.remove(pageNumber);
+        if (items == null) {
+            return;
+        }
+
+        long size = 0;
+        for (T item : items) {
+            size += sizeEstimator.applyAsLong(item);
+        }
+        pages.put(pageNumber, new Page<>(items, size));
+        memoryUsed += size;
+        evictPages();
+
+        int firstIndex = pageNumber * pageSize;
+        int lastIndex = Math.min(firstIndex + items.size(), itemCount) - 1;
+        if (lastIndex >= firstIndex) {
+            modelListeners.forEach(listener ->
+                    listener.notifyItemsUpdated(firstIndex, lastIndex)
+            );
+        }
+    }
+
+    // evicts the least recently used pages until within budget, always
+    // keeping the page used last
+    private void evictPages() {
+        Iterator<Map.Entry<Integer, Page<T>>> iterator = pages.entrySet().iterator();
+        while (memoryUsed > memoryBudget && pages.size() > 1 && iterator.hasNext()) {
+            Map.Entry<Integer, Page<T>> eldest = iterator.next();
+            memoryUsed -= eldest.getValue().size;
+            iterator.remove();
+            if (Trace.isEnabled(Subsystem.LIST_VIEW)) {
+                Trace.log(Subsystem.LIST_VIEW, TAG, () -> "evictPages: page=" + eldest.getKey());
+            }
+        }
+    }
+
+    public void addModelListener(ModelListener listener) {
+        modelListeners.add(listener);
+    }
+
+    public void removeModelListener(ModelListener listener) {
+        modelListeners.remove(listener);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return the estimated size, in bytes, of the loaded pages.
+     */
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    @Override
+    public String toString() {
+        return "PagedDataSource{" +
+                "itemCount=" + itemCount +
+                ", pageSize=" + pageSize +
+                ", loadedPages=" + pages.size() +
+                ", pagesInFlight=" + pagesInFlight.size() +
+                ", memoryUsed=" + memoryUsed +
+                ", memoryBudget=" + memoryBudget +
+                '}';
+    }
+
+    public static class Builder<T> {
+        private final PageLoader<T> loader;
+        private int itemCount;
+        private int pageSize;
+        private long memoryBudget;
+        private ToLongFunction<? super T> sizeEstimator;
+        private Executor executor;
+
+        public Builder(PageLoader<T> loader) {
+            this.loader = loader;
+            pageSize = DEFAULT_PAGE_SIZE;
+            memoryBudget = DEFAULT_MEMORY_BUDGET;
+            sizeEstimator = item -> DEFAULT_ITEM_SIZE;
+        }
+
+        public Builder<T> setItemCount(int itemCount) {
+            if (itemCount < 0) {
+                throw new IllegalArgumentException("itemCount may not be negative");
+            }
+            this.itemCount = itemCount;
+            return this;
+        }
+
+        public Builder<T> setPageSize(int pageSize) {
+            if (pageSize < 1) {
+                throw new IllegalArgumentException("pageSize must be at least 1");
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @param memoryBudget the estimated size, in bytes, the loaded pages
+         *                     may take up before the least recently used
+         *                     are evicted.
+         * @return this builder.
+         */
+        public Builder<T> setMemoryBudget(long memoryBudget) {
+            if (memoryBudget < 0) {
+                throw new IllegalArgumentException("memoryBudget may not be negative");
+            }
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * @param sizeEstimator estimates the size of an item in bytes, by
+         *                      default every item is
+         *                      {@link #DEFAULT_ITEM_SIZE} bytes.
+         * @return this builder.
+         */
+        public Builder<T> setSizeEstimator(ToLongFunction<? super T> sizeEstimator) {
+            this.sizeEstimator = sizeEstimator;
+            return this;
+        }
+
+        /**
+         * @param executor runs the page loader, by default a single daemon
+         *                 thread owned by the data source.
+         * @return this builder.
+         */
+        public Builder<T> setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public PagedDataSource<T> build() {
+            return new PagedDataSource<>(this);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package genericlistview;
+
+import java.util.Arrays;
+
+/**
+ * A Fenwick tree (binary indexed tree) of non negative values. Both the sum
+ * of the values before an index and the index containing a given offset are
+ * found in O(log n), while changing a single value is also O(log n).
+ * Inserting or removing values shifts the values that follow, so the tree is
+ * rebuilt in O(n).
+ * <p>
+ * This class is not thread safe.
+ */
+public class PrefixSumIndex {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "PrefixSumIndex" + ": ";
+
+    private long[] values;
+    // one based Fenwick tree, tree[i] holds the sum of values in (i - lsb(i), i]
+    private long[] tree;
+    private int size;
+
+    public PrefixSumIndex() {
+        this(0, 0);
+    }
+
+    /**
+     * @param size         the number of values.
+     * @param initialValue the value each index starts with.
+     */
+    public PrefixSumIndex(int size,
+                          long initialValue) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size may not be negative");
+        }
+        checkValue(initialValue);
+        this.size = size;
+        values = new long[Math.max(size, 16)];
+        Arrays.fill(values, 0, size, initialValue);
+        tree = new long[values.length + 1];
+        rebuild();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void set(int index,
+                    long value) {
+        checkIndex(index);
+        checkValue(value);
+        long delta = value - values[index];
+        values[index] = value;
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * @param index the exclusive end of the range, from 0 to {@link #size()}.
+     * @return the sum of the values before the index.
+     */
+    public long prefixSum(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+        }
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return the sum of all values.
+     */
+    public long total() {
+        return prefixSum(size);
+    }
+
+    /**
+     * Finds the index whose range contains the offset, where the range of an
+     * index runs from {@link #prefixSum(int)} inclusive to the prefix sum of
+     * the next index exclusive. Zero values have an empty range and are never
+     * returned unless they are at the end.
+     *
+     * @param offset the offset, for example a y coordinate.
+     * @return the index containing the offset, 0 if the offset is negative
+     * or {@link #size()} if it is beyond the total.
+     */
+    public int indexOf(long offset) {
+        if (offset < 0) {
+            return 0;
+        }
+        int position = 0;
+        long remaining = offset;
+        for (int step = Integer.highestOneBit(Math.max(size, 1)); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        // position is now the number of values whose sum is <= offset
+        return position;
+    }
+
+    /**
+     * Inserts <code>count</code> copies of a value before the index.
+     *
+     * @param index the index to insert at, from 0 to {@link #size()}.
+     * @param count the number of values to insert.
+     * @param value the value to insert.
+     */
+    public void insert(int index,
+                       int count,
+                       long value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+        }
+        checkValue(value);
+        if (count <= 0) {
+            return;
+        }
+        ensureCapacity(size + count);
+        System.arraycopy(values, index, values, index + count, size - index);
+        Arrays.fill(values, index, index + count, value);
+        size += count;
+        rebuild();
+    }
+
+    /**
+     * Removes <code>count</code> values starting at the index.
+     *
+     * @param index the index of the first value to remove.
+     * @param count the number of values to remove.
+     */
+    public void remove(int index,
+                       int count) {
+        if (count <= 0) {
+            return;
+        }
+        if (index < 0 || index + count > size) {
+            throw new IndexOutOfBoundsException(
+                    "index=" + index + " count=" + count + " size=" + size);
+        }
+        System.arraycopy(values, index + count, values, index, size - index - count);
+        size -= count;
+        rebuild();
+    }
+
+    /**
+     * Moves <code>count</code> values from one index to another. Only the
+     * values between the two indices change, so this is O(m log n) where m is
+     * the distance moved plus the count.
+     *
+     * @param fromIndex the index of the first value before the move.
+     * @param toIndex   the index of the first value after the move.
+     * @param count     the number of values to move.
+     */
+    public void move(int fromIndex,
+                     int toIndex,
+                     int count) {
+        if (count <= 0 || fromIndex == toIndex) {
+            return;
+        }
+        int first = Math.min(fromIndex, toIndex);
+        int end = Math.max(fromIndex, toIndex) + count;
+        if (first < 0 || end > size) {
+            throw new IndexOutOfBoundsException(
+                    "fromIndex=" + fromIndex + " toIndex=" + toIndex +
+                    " count=" + count + " size=" + size);
+        }
+        long[] window = Arrays.copyOfRange(values, first, end);
+        long[] moved = Arrays.copyOfRange(values, fromIndex, fromIndex + count);
+        if (toIndex < fromIndex) {
+            System.arraycopy(values, toIndex, values, toIndex + count, fromIndex - toIndex);
+        } else {
+            System.arraycopy(values, fromIndex + count, values, fromIndex, toIndex - fromIndex);
+        }
+        System.arraycopy(moved, 0, values, toIndex, count);
+        for (int index = first; index < end; index++) {
+            long delta = values[index] - window[index - first];
+            for (int i = index + 1; delta != 0 && i <= size; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+    }
+
+    /**
+     * Resizes the index, replacing every value with the initial value.
+     *
+     * @param size         the new number of values.
+     * @param initialValue the value each index starts with.
+     */
+    public void reset(int size,
+                      long initialValue) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size may not be negative");
+        }
+        checkValue(initialValue);
+        ensureCapacity(size);
+        this.size = size;
+        Arrays.fill(values, 0, size, initialValue);
+        rebuild();
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > values.length) {
+            int capacity = Math.max(minCapacity, values.length + (values.length >> 1));
+            values = Arrays.copyOf(values, capacity);
+            tree = new long[capacity + 1];
+        }
+    }
+
+    // builds the tree from the values in O(n)
+    private void rebuild() {
+        Arrays.fill(tree, 0);
+        for (int i = 1; i <= size; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+        }
+    }
+
+    private static void checkValue(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("values may not be negative");
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package genericlistview;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps a separate {@link ViewHolderPool} for each item view type, so a row
+ * only ever reuses a view holder built for its own layout. Every type pool is
+ * bounded by the same capacity, unless overridden with
+ * {@link #setMaxRecycledViews(int, int)}.
+ * <p>
+ * This class is not thread safe, it is designed to be used on the event
+ * dispatch thread by the {@link AbstractGenericListView}. Only the counters
+ * may be read, or reset, from another thread, such as a JMX connection.
+ *
+ * @param <VH> the view holder type being pooled.
+ */
+public class RecycledViewPool<VH> {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "RecycledViewPool" + ": ";
+
+    private final Map<Integer, ViewHolderPool<VH>> pools;
+    // capacities set for individual view types, these are not resized with
+    // the viewport
+    private final Map<Integer, Integer> maxRecycledViews;
+
+    private int capacity;
+
+    public RecycledViewPool() {
+        this(ViewHolderPool.DEFAULT_CAPACITY);
+    }
+
+    public RecycledViewPool(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        // concurrent so the counters can be summed by a monitoring thread
+        pools = new ConcurrentHashMap<>();
+        maxRecycledViews = new HashMap<>();
+    }
+
+    /**
+     * Gets a view holder of the given type for the index.
+     *
+     * @param index    the index of the item in the data.
+     * @param viewType the view type of the item at the index.
+     * @param factory  creates a new view holder bound to the index.
+     * @param binder   binds an existing view holder to the index.
+     * @return a view holder of the requested type for the index.
+     * @see ViewHolderPool#acquire(int, IntFunction, ViewHolderPool.Binder)
+     */
+    public VH acquire(int index,
+                      int viewType,
+                      IntFunction<VH> factory,
+                      ViewHolderPool.Binder<VH> binder) {
+        return getPool(viewType).acquire(index, factory, binder);
+    }
+
+    /**
+     * Gets a view holder of the given type for the item with the key,
+     * usually its stable id.
+     *
+     * @param key      identifies the item the holder is bound to.
+     * @param index    the index of the item in the data.
+     * @param viewType the view type of the item at the index.
+     * @param factory  creates a new view holder bound to the index.
+     * @param binder   binds an existing view holder to the index.
+     * @return a view holder of the requested type for the item.
+     * @see ViewHolderPool#acquire(long, int, IntFunction, ViewHolderPool.Binder)
+     */
+    public VH acquire(long key,
+                      int index,
+                      int viewType,
+                      IntFunction<VH> factory,
+                      ViewHolderPool.Binder<VH> binder) {
+        return getPool(viewType).acquire(key, index, factory, binder);
+    }
+
+    /**
+     * @param key the index, or stable id, of the item.
+     * @return the view holder bound to the item in any type pool, or null if
+     * there is none.
+     */
+    public VH peek(long key) {
+        for (ViewHolderPool<VH> pool : pools.values()) {
+            VH viewHolder = pool.peek(key);
+            if (viewHolder != null) {
+                return viewHolder;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param action called with the key and holder of each bound holder of
+     *               every type pool.
+     */
+    public void forEachBound(BiConsumer<Long, ? super VH> action) {
+        pools.values().forEach(pool -> pool.forEachBound(action));
+    }
+
+    public void onItemsInserted(int firstIndex,
+                                int lastIndex) {
+        pools.values().forEach(pool -> pool.onItemsInserted(firstIndex, lastIndex));
+    }
+
+    public void onItemsDeleted(int firstIndex,
+                               int lastIndex) {
+        pools.values().forEach(pool -> pool.onItemsDeleted(firstIndex, lastIndex));
+    }
+
+    public void onItemsMoved(int fromIndex,
+                             int toIndex,
+                             int itemCount) {
+        pools.values().forEach(pool -> pool.onItemsMoved(fromIndex, toIndex, itemCount));
+    }
+
+    public void scrapAll() {
+        pools.values().forEach(ViewHolderPool::scrapAll);
+    }
+
+    /**
+     * Gets the pool for a view type, creating it if this is the first time
+     * the type has been seen.
+     *
+     * @param viewType the view type.
+     * @return the pool holding view holders of the view type.
+     */
+    public ViewHolderPool<VH> getPool(int viewType) {
+        return pools.computeIfAbsent(viewType, type ->
+                new ViewHolderPool<>(maxRecycledViews.getOrDefault(type, capacity))
+        );
+    }
+
+    /**
+     * @return the pools for every view type seen so far.
+     */
+    public Collection<ViewHolderPool<VH>> getPools() {
+        return Collections.unmodifiableCollection(pools.values());
+    }
+
+    /**
+     * Sets the capacity of every type pool that has not had its own maximum
+     * set with {@link #setMaxRecycledViews(int, int)}.
+     *
+     * @param capacity the maximum number of holders per view type.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        pools.forEach((type, pool) -> {
+            if (!maxRecycledViews.containsKey(type)) {
+                pool.setCapacity(capacity);
+            }
+        });
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Fixes the capacity of a single view type, for example a header type
+     * that can never fill the viewport.
+     *
+     * @param viewType the view type.
+     * @param max      the maximum number of holders for the view type.
+     */
+    public void setMaxRecycledViews(int viewType,
+                                    int max) {
+        maxRecycledViews.put(viewType, max);
+        getPool(viewType).setCapacity(max);
+    }
+
+    public long getHitCount() {
+        return pools.values().stream().mapToLong(ViewHolderPool::getHitCount).sum();
+    }
+
+    public long getMissCount() {
+        return pools.values().stream().mapToLong(ViewHolderPool::getMissCount).sum();
+    }
+
+    public long getRecycleCount() {
+        return pools.values().stream().mapToLong(ViewHolderPool::getRecycleCount).sum();
+    }
+
+    public long getEvictionCount() {
+        return pools.values().stream().mapToLong(ViewHolderPool::getEvictionCount).sum();
+    }
+
+    public void resetCounters() {
+        pools.values().forEach(ViewHolderPool::resetCounters);
+    }
+
+    @Override
+    public String toString() {
+        return "RecycledViewPool{" +
+                "capacity=" + capacity +
+                ", pools=" + pools +
+                '}';
+    }
+}
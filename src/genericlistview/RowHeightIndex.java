@@ -0,0 +1,215 @@
+package genericlistview;
+
+import java.util.BitSet;
+
+/**
+ * Caches the height of every row in the list, so a row is only measured once
+ * and then again only when its model changes. Heights are held in a
+ * {@link PrefixSumIndex}, which makes both the y coordinate of a row and the
+ * row at a y coordinate O(log n) lookups, even when every row has a
+ * different height. Rows that have not yet been measured use an estimated
+ * height.
+ * <p>
+ * This class is not thread safe, it is designed to be used on the event
+ * dispatch thread by the {@link AbstractGenericListView}.
+ */
+public class RowHeightIndex {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "RowHeightIndex" + ": ";
+
+    private final PrefixSumIndex heights;
+    // set bits are rows whose height has been measured and is still valid
+    private BitSet measured;
+    private int estimatedRowHeight;
+
+    /**
+     * @param estimatedRowHeight the height given to rows until they are
+     *                           measured.
+     */
+    public RowHeightIndex(int estimatedRowHeight) {
+        checkHeight(estimatedRowHeight);
+        this.estimatedRowHeight = estimatedRowHeight;
+        heights = new PrefixSumIndex();
+        measured = new BitSet();
+    }
+
+    public int getRowCount() {
+        return heights.size();
+    }
+
+    public int getRowHeight(int row) {
+        return (int) heights.get(row);
+    }
+
+    /**
+     * Records the measured height of a row.
+     *
+     * @param row    the row.
+     * @param height the measured height of the row.
+     * @return true if the height differs from the height previously held.
+     */
+    public boolean setRowHeight(int row,
+                                int height) {
+        checkHeight(height);
+        measured.set(row);
+        if (heights.get(row) == height) {
+            return false;
+        }
+        heights.set(row, height);
+        return true;
+    }
+
+    /**
+     * @param row the row.
+     * @return true if the row has been measured since it was inserted or
+     * last invalidated.
+     */
+    public boolean isMeasured(int row) {
+        return measured.get(row);
+    }
+
+    /**
+     * @param fromRow the row to search from, inclusive.
+     * @return the first measured row at or after the row, or -1 if there is
+     * none.
+     */
+    public int nextMeasuredRow(int fromRow) {
+        int row = measured.nextSetBit(fromRow);
+        return row < heights.size() ? row : -1;
+    }
+
+    /**
+     * Marks the rows as needing to be measured again. The last known heights
+     * are kept until then, so the list does not jump.
+     *
+     * @param firstRow the inclusive first row.
+     * @param lastRow  the inclusive last row.
+     */
+    public void invalidate(int firstRow,
+                           int lastRow) {
+        measured.clear(firstRow, lastRow + 1);
+    }
+
+    /**
+     * @param row the row.
+     * @return the y coordinate of the top of the row.
+     */
+    public long getRowY(int row) {
+        return heights.prefixSum(row);
+    }
+
+    /**
+     * @param y the y coordinate.
+     * @return the row containing the y coordinate, or -1 if there is no row
+     * at the coordinate.
+     */
+    public int getRowAt(long y) {
+        if (y < 0) {
+            return -1;
+        }
+        int row = heights.indexOf(y);
+        return row < heights.size() ? row : -1;
+    }
+
+    /**
+     * @return the sum of the heights of every row.
+     */
+    public long getTotalHeight() {
+        return heights.total();
+    }
+
+    public int getEstimatedRowHeight() {
+        return estimatedRowHeight;
+    }
+
+    /**
+     * Changes the height given to rows that have not been measured. This is
+     * O(n) as every unmeasured row is updated.
+     *
+     * @param estimatedRowHeight the height given to rows until they are
+     *                           measured.
+     */
+    public void setEstimatedRowHeight(int estimatedRowHeight) {
+        checkHeight(estimatedRowHeight);
+        this.estimatedRowHeight = estimatedRowHeight;
+        for (int row = measured.nextClearBit(0);
+             row < heights.size();
+             row = measured.nextClearBit(row + 1)) {
+            heights.set(row, estimatedRowHeight);
+        }
+    }
+
+    /**
+     * @param firstRow the inclusive index of the first row inserted.
+     * @param lastRow  the inclusive index of the last row inserted.
+     */
+    public void insertRows(int firstRow,
+                           int lastRow) {
+        int count = lastRow - firstRow + 1;
+        heights.insert(firstRow, count, estimatedRowHeight);
+        measured = shift(measured, firstRow, count);
+    }
+
+    /**
+     * @param firstRow the inclusive index of the first row deleted.
+     * @param lastRow  the inclusive index of the last row deleted.
+     */
+    public void removeRows(int firstRow,
+                           int lastRow) {
+        int count = lastRow - firstRow + 1;
+        heights.remove(firstRow, count);
+        measured = shift(measured, lastRow + 1, -count);
+    }
+
+    /**
+     * Moves rows along with their heights, so moved rows need not be measured
+     * again.
+     *
+     * @param fromRow  the index of the first row before the move.
+     * @param toRow    the index of the first row after the move.
+     * @param rowCount the number of rows moved.
+     */
+    public void moveRows(int fromRow,
+                         int toRow,
+                         int rowCount) {
+        heights.move(fromRow, toRow, rowCount);
+        int first = Math.min(fromRow, toRow);
+        int end = Math.max(fromRow, toRow) + rowCount;
+        BitSet window = measured.get(first, end);
+        for (int row = first; row < end; row++) {
+            int movedRow = ViewHolderPool.movedIndex(row, fromRow, toRow, rowCount);
+            measured.set(movedRow, window.get(row - first));
+        }
+    }
+
+    /**
+     * Forgets every measurement, used when the whole data set has changed.
+     *
+     * @param rowCount the number of rows in the data.
+     */
+    public void reset(int rowCount) {
+        heights.reset(rowCount, estimatedRowHeight);
+        measured = new BitSet(rowCount);
+    }
+
+    // moves the bits from the index onwards by delta, dropping any bits that
+    // are overwritten by a negative shift.
+    private static BitSet shift(BitSet bits,
+                                int fromIndex,
+                                int delta) {
+        var shifted = new BitSet();
+        int keep = delta < 0 ? fromIndex + delta : fromIndex;
+        shifted.or(bits.get(0, keep));
+        for (int i = bits.nextSetBit(fromIndex); i >= 0; i = bits.nextSetBit(i + 1)) {
+            shifted.set(i + delta);
+        }
+        return shifted;
+    }
+
+    private static void checkHeight(int height) {
+        if (height < 0) {
+            throw new IllegalArgumentException("height may not be negative");
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package genericlistview;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Caches a rasterised image of each row, so a row that has not changed since
+ * it was last bound is repainted by drawing its image rather than painting
+ * its whole component tree. Images are keyed by the index, or stable id, of
+ * their item and are only used for the same version of the item, and at the
+ * size and display scale they were captured at. A row whose item has been
+ * replaced, that has been resized or that has moved to a screen with a
+ * different scale is simply captured again.
+ * <p>
+ * The version is compared by identity, so suits immutable models, which are
+ * replaced rather than changed. A stale image is then never drawn even if an
+ * update was not notified.
+ * <p>
+ * Images are kept in least recently used order and evicted once their size
+ * exceeds the memory budget. The owner removes the image of an item when the
+ * item is updated, and clears the cache when the look and feel changes.
+ * <p>
+ * This class is not thread safe, it is designed to be used on the event
+ * dispatch thread by the {@link AbstractGenericListView}.
+ */
+public class RowSnapshotCache {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "RowSnapshotCache" + ": ";
+
+    public static final long DEFAULT_MEMORY_BUDGET = 16L * 1024 * 1024;
+
+    private static final class Snapshot {
+        final BufferedImage image;
+        final Object version;
+        final int width;
+        final int height;
+        final double scale;
+
+        Snapshot(BufferedImage image,
+                 Object version,
+                 int width,
+                 int height,
+                 double scale) {
+            this.image = image;
+            this.version = version;
+            this.width = width;
+            this.height = height;
+            this.scale = scale;
+        }
+
+        long size() {
+            return (long) image.getWidth() * image.getHeight() * 4;
+        }
+    }
+
+    // snapshots in least recently used order, keyed by index or item id
+    private final LinkedHashMap<Long, Snapshot> snapshots;
+    private long memoryBudget;
+    private long memoryUsed;
+
+    private long hitCount;
+    private long missCount;
+
+    public RowSnapshotCache() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param memoryBudget the size, in bytes, the images may take up before
+     *                     the least recently used are evicted.
+     */
+    public RowSnapshotCache(long memoryBudget) {
+        checkMemoryBudget(memoryBudget);
+        this.memoryBudget = memoryBudget;
+        snapshots = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    /**
+     * @param key     the index, or stable id, of the item.
+     * @param version the item, or any object that is replaced when the item
+     *                changes.
+     * @param width   the width of the row.
+     * @param height  the height of the row.
+     * @param scale   the scale of the display the row is painted to.
+     * @return the image of the row, or null if there is none of this version
+     * of the item at this size and scale.
+     */
+    public Image get(long key,
+                     Object version,
+                     int width,
+                     int height,
+                     double scale) {
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            missCount++;
+            return null;
+        }
+        if (snapshot.version != version ||
+                snapshot.width != width ||
+                snapshot.height != height ||
+                snapshot.scale != scale) {
+            remove(key);
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return snapshot.image;
+    }
+
+    /**
+     * Paints the row into a new image and caches it for the item.
+     *
+     * @param key     the index, or stable id, of the item.
+     * @param version the item, or any object that is replaced when the item
+     *                changes.
+     * @param width   the width of the row.
+     * @param height  the height of the row.
+     * @param scale   the scale of the display the row is painted to.
+     * @param painter paints the row at the origin, in the rows size.
+     * @return the image, or null if the row is empty.
+     */
+    public Image capture(long key,
+                         Object version,
+                         int width,
+                         int height,
+                         double scale,
+                         Consumer<Graphics2D> painter) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        var image = new BufferedImage(
+                (int) Math.ceil(width * scale),
+                (int) Math.ceil(height * scale),
+                BufferedImage.TYPE_INT_ARGB
+        );
+        Graphics2D g = image.createGraphics();
+        try {
+            g.scale(scale, scale);
+            painter.accept(g);
+        } finally {
+            g.dispose();
+        }
+        remove(key);
+        var snapshot = new Snapshot(image, version, width, height, scale);
+        snapshots.put(key, snapshot);
+        memoryUsed += snapshot.size();
+        evictSnapshots();
+        return image;
+    }
+
+    /**
+     * @param key the index, or stable id, of the item whose image is out of
+     *            date.
+     */
+    public void remove(long key) {
+        Snapshot snapshot = snapshots.remove(key);
+        if (snapshot != null) {
+            memoryUsed -= snapshot.size();
+        }
+    }
+
+    public void clear() {
+        snapshots.clear();
+        memoryUsed = 0;
+    }
+
+    // evicts the least recently used images until within budget, always
+    // keeping the image captured last
+    private void evictSnapshots() {
+        Iterator<Map.Entry<Long, Snapshot>> iterator = snapshots.entrySet().iterator();
+        while (memoryUsed > memoryBudget && snapshots.size() > 1 && iterator.hasNext()) {
+            memoryUsed -= iterator.next().getValue().size();
+            iterator.remove();
+        }
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @param memoryBudget the size, in bytes, the images may take up before
+     *                     the least recently used are evicted.
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        checkMemoryBudget(memoryBudget);
+        this.memoryBudget = memoryBudget;
+        evictSnapshots();
+    }
+
+    /**
+     * @return the size, in bytes, of the cached images.
+     */
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    private static void checkMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("memoryBudget may not be negative");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RowSnapshotCache{" +
+                "size=" + snapshots.size() +
+                ", memoryUsed=" + memoryUsed +
+                ", memoryBudget=" + memoryBudget +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                '}';
+    }
+}
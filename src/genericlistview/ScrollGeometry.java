@@ -0,0 +1,139 @@
+package genericlistview;
+
+/**
+ * Maps between the int scroll position of a list and the long y coordinates
+ * of its rows. While the rows fit within the maximum scroll range a scroll
+ * position is simply a pixel offset. Beyond it, as with tens of millions of
+ * rows, the position is scaled to a logical row position instead: each row is
+ * given the same number of scroll steps, so the row at a position is found by
+ * division and the position of a row by multiplication, and every row can be
+ * scrolled to exactly whatever the length of the list. The steps within a
+ * row are spread over its height.
+ * <p>
+ * The geometry holds no state of its own, it reads the current heights from
+ * the {@link RowHeightIndex} on every call.
+ * <p>
+ * This class is not thread safe, it is designed to be used on the event
+ * dispatch thread by the {@link AbstractGenericListView}.
+ */
+public class ScrollGeometry {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "ScrollGeometry" + ": ";
+
+    // well within int, so the extent can be added to the range
+    public static final int DEFAULT_MAX_SCROLL_RANGE = 1 << 30;
+
+    private final RowHeightIndex rowHeights;
+    private final int maxScrollRange;
+
+    public ScrollGeometry(RowHeightIndex rowHeights) {
+        this(rowHeights, DEFAULT_MAX_SCROLL_RANGE);
+    }
+
+    /**
+     * @param rowHeights     the heights of the rows.
+     * @param maxScrollRange the largest list, in pixels, scrolled by pixel
+     *                       offset.
+     */
+    public ScrollGeometry(RowHeightIndex rowHeights,
+                          int maxScrollRange) {
+        if (maxScrollRange < 1) {
+            throw new IllegalArgumentException("maxScrollRange must be at least 1");
+        }
+        this.rowHeights = rowHeights;
+        this.maxScrollRange = maxScrollRange;
+    }
+
+    /**
+     * @return true if the rows are too tall to scroll by pixel offset, and
+     * scroll positions are logical row positions.
+     */
+    public boolean isScaled() {
+        return rowHeights.getTotalHeight() > maxScrollRange;
+    }
+
+    /**
+     * @return the number of scroll positions given to each row when scaled,
+     * at least one, otherwise one.
+     */
+    public int getStepsPerRow() {
+        if (!isScaled()) {
+            return 1;
+        }
+        return Math.max(1, maxScrollRange / Math.max(1, rowHeights.getRowCount()));
+    }
+
+    /**
+     * @return the scroll position of the end of the list.
+     */
+    public int getScrollRange() {
+        if (!isScaled()) {
+            return (int) rowHeights.getTotalHeight();
+        }
+        return (int) Math.min((long) rowHeights.getRowCount() * getStepsPerRow(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param scrollValue the scroll position.
+     * @param extent      the height of the viewport.
+     * @return the y coordinate of the top of the viewport, no further than
+     * the last full viewport of rows.
+     */
+    public long toContentY(int scrollValue,
+                           int extent) {
+        long maxY = Math.max(0, rowHeights.getTotalHeight() - extent);
+        if (!isScaled()) {
+            return Math.max(0, Math.min(scrollValue, maxY));
+        }
+        int stepsPerRow = getStepsPerRow();
+        int row = Math.max(0, scrollValue) / stepsPerRow;
+        if (row >= rowHeights.getRowCount()) {
+            return maxY;
+        }
+        long y = rowHeights.getRowY(row) +
+                (long) rowHeights.getRowHeight(row) * (Math.max(0, scrollValue) % stepsPerRow) / stepsPerRow;
+        return Math.min(y, maxY);
+    }
+
+    /**
+     * @param y a y coordinate within the list.
+     * @return the scroll position that puts the coordinate at the top of the
+     * viewport.
+     */
+    public int toScrollValue(long y) {
+        if (!isScaled()) {
+            return (int) Math.max(0, Math.min(y, rowHeights.getTotalHeight()));
+        }
+        int row = rowHeights.getRowAt(y);
+        if (row < 0) {
+            return y <= 0 ? 0 : getScrollRange();
+        }
+        int stepsPerRow = getStepsPerRow();
+        long offset = y - rowHeights.getRowY(row);
+        int rowHeight = Math.max(1, rowHeights.getRowHeight(row));
+        return (int) ((long) row * stepsPerRow + offset * stepsPerRow / rowHeight);
+    }
+
+    /**
+     * @param row the index of the row.
+     * @return the scroll position that puts the top of the row at the top of
+     * the viewport. O(1) when scaled, otherwise O(log n).
+     */
+    public int getScrollValue(int row) {
+        if (isScaled()) {
+            return (int) ((long) row * getStepsPerRow());
+        }
+        return (int) rowHeights.getRowY(row);
+    }
+
+    @Override
+    public String toString() {
+        return "ScrollGeometry{" +
+                "isScaled=" + isScaled() +
+                ", scrollRange=" + getScrollRange() +
+                ", stepsPerRow=" + getStepsPerRow() +
+                ", maxScrollRange=" + maxScrollRange +
+                '}';
+    }
+}
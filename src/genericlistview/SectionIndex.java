@@ -0,0 +1,139 @@
+package genericlistview;
+
+import java.util.Arrays;
+
+/**
+ * The rows that start a section of the list, held in ascending order. The
+ * section holding a row is found by binary search in O(log s), for s
+ * sections, so the section of the top visible row can be looked up on every
+ * scroll. Rows inserted or removed shift the starts that follow them, so the
+ * index is kept up to date without scanning the rows, and only the rows
+ * either side of a change need to be checked again.
+ * <p>
+ * This class is not thread safe, it is designed to be used on the event
+ * dispatch thread by the {@link AbstractGenericListView}.
+ */
+public class SectionIndex {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "SectionIndex" + ": ";
+
+    public static final int NO_SECTION = -1;
+
+    private int[] starts;
+    private int size;
+
+    public SectionIndex() {
+        starts = new int[16];
+    }
+
+    /**
+     * @return the number of sections.
+     */
+    public int getSectionCount() {
+        return size;
+    }
+
+    /**
+     * @param section the index of the section.
+     * @return the row that starts the section.
+     */
+    public int getSectionStart(int section) {
+        if (section < 0 || section >= size) {
+            throw new IndexOutOfBoundsException("section=" + section + " size=" + size);
+        }
+        return starts[section];
+    }
+
+    /**
+     * @param row the row.
+     * @return the index of the section holding the row, or
+     * {@link #NO_SECTION} if the row is before the first section.
+     */
+    public int getSectionAt(int row) {
+        int position = Arrays.binarySearch(starts, 0, size, row);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    public boolean isSectionStart(int row) {
+        return Arrays.binarySearch(starts, 0, size, row) >= 0;
+    }
+
+    /**
+     * @param row            the row.
+     * @param isSectionStart true if the row starts a section.
+     * @return true if whether the row starts a section changed.
+     */
+    public boolean setSectionStart(int row,
+                                   boolean isSectionStart) {
+        int position = Arrays.binarySearch(starts, 0, size, row);
+        if (isSectionStart && position < 0) {
+            int insertAt = -position - 1;
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+            }
+            System.arraycopy(starts, insertAt, starts, insertAt + 1, size - insertAt);
+            starts[insertAt] = row;
+            size++;
+            return true;
+        } else if (!isSectionStart && position >= 0) {
+            System.arraycopy(starts, position + 1, starts, position, size - position - 1);
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Shifts the starts at and after the first row inserted. Whether the
+     * inserted rows, and the row after them, start a section is left to the
+     * caller to check.
+     *
+     * @param firstRow the inclusive index of the first row inserted.
+     * @param lastRow  the inclusive index of the last row inserted.
+     */
+    public void insertRows(int firstRow,
+                           int lastRow) {
+        int count = lastRow - firstRow + 1;
+        for (int position = firstPositionFrom(firstRow); position < size; position++) {
+            starts[position] += count;
+        }
+    }
+
+    /**
+     * Drops the starts of the rows removed and shifts the starts after them.
+     * Whether the row now at the first index starts a section is left to
+     * the caller to check.
+     *
+     * @param firstRow the inclusive index of the first row removed.
+     * @param lastRow  the inclusive index of the last row removed.
+     */
+    public void removeRows(int firstRow,
+                           int lastRow) {
+        int count = lastRow - firstRow + 1;
+        int first = firstPositionFrom(firstRow);
+        int end = firstPositionFrom(lastRow + 1);
+        System.arraycopy(starts, end, starts, first, size - end);
+        size -= end - first;
+        for (int position = first; position < size; position++) {
+            starts[position] -= count;
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // the position of the first start at or after the row
+    private int firstPositionFrom(int row) {
+        int position = Arrays.binarySearch(starts, 0, size, row);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "SectionIndex{" +
+                "starts=" + Arrays.toString(Arrays.copyOf(starts, size)) +
+                '}';
+    }
+}
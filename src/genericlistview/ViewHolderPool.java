@@ -0,0 +1,356 @@
+package genericlistview;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * A bounded pool of view holders. Rather than keeping one view holder for
+ * every row ever rendered, the pool keeps roughly the number of visible rows
+ * plus an overscan margin. Holders are keyed by the index they were last bound
+ * to, or by the stable id of the item when the list has stable ids, so
+ * re-rendering the same row is a cheap hit. When a row without a
+ * holder is requested the least recently used holder is evicted from its
+ * index and rebound to the new one.
+ * <p>
+ * This class is not thread safe, it is designed to be used on the event
+ * dispatch thread by the {@link AbstractGenericListView}. Only the counters
+ * may be read, or reset, from another thread, such as a JMX connection.
+ *
+ * @param <VH> the view holder type being pooled.
+ */
+public class ViewHolderPool<VH> {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "ViewHolderPool" + ": ";
+
+    /**
+     * Called by the pool when a holder it already owns is handed out for an
+     * index, either because it is still bound to it or because it is being
+     * moved to it.
+     *
+     * @param <VH> the view holder type being pooled.
+     */
+    public interface Binder<VH> {
+        void bind(int index, VH viewHolder);
+    }
+
+    public static final int DEFAULT_CAPACITY = 8;
+
+    // bound holders in least recently used order, keyed by index or item id
+    private final LinkedHashMap<Long, VH> boundHolders;
+    // holders that are no longer bound to any index, ready for reuse
+    private final ArrayDeque<VH> scrapHolders;
+
+    private int capacity;
+
+    // atomic, so a monitoring thread never reads a torn value
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong recycleCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public ViewHolderPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ViewHolderPool(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        boundHolders = new LinkedHashMap<>(capacity * 2, 0.75f, true);
+        scrapHolders = new ArrayDeque<>();
+    }
+
+    /**
+     * Gets a view holder for the index. If a holder is already bound to the
+     * index it is reused (a hit). Otherwise a scrapped or least recently used
+     * holder is moved to the index (a recycle), and only when the pool has
+     * spare capacity is a new holder created through the <code>factory</code>
+     * (a miss). Hits and recycles are passed to the <code>binder</code> so
+     * the holder can be brought up to date with the data.
+     *
+     * @param index   the index of the item in the data.
+     * @param factory creates a new view holder bound to the index.
+     * @param binder  binds an existing view holder to the index.
+     * @return a view holder for the index.
+     */
+    public VH acquire(int index,
+                      IntFunction<VH> factory,
+                      Binder<VH> binder) {
+        return acquire(index, index, factory, binder);
+    }
+
+    /**
+     * Gets a view holder for the item with the key, usually its stable id.
+     *
+     * @param key     identifies the item the holder is bound to.
+     * @param index   the index of the item in the data.
+     * @param factory creates a new view holder bound to the index.
+     * @param binder  binds an existing view holder to the index.
+     * @return a view holder for the item.
+     * @see #acquire(int, IntFunction, Binder)
+     */
+    public VH acquire(long key,
+                      int index,
+                      IntFunction<VH> factory,
+                      Binder<VH> binder) {
+
+        VH viewHolder = boundHolders.get(key);
+        if (viewHolder != null) {
+            hitCount.incrementAndGet();
+            binder.bind(index, viewHolder);
+            return viewHolder;
+        }
+
+        viewHolder = scrapHolders.poll();
+        if (viewHolder == null && size() >= capacity) {
+            viewHolder = evictEldest();
+        }
+
+        if (viewHolder == null) {
+            missCount.incrementAndGet();
+            viewHolder = factory.apply(index);
+        } else {
+            recycleCount.incrementAndGet();
+            binder.bind(index, viewHolder);
+        }
+        boundHolders.put(key, viewHolder);
+        return viewHolder;
+    }
+
+    /**
+     * @param key the index, or stable id, of the item.
+     * @return the view holder bound to the item or null if there is none.
+     * Does not affect the recycling order, so the bound holders are scanned
+     * rather than looked up, which is O(capacity). The pool is only as large
+     * as the visible rows plus the overscan margin.
+     */
+    public VH peek(long key) {
+        for (Map.Entry<Long, VH> entry : boundHolders.entrySet()) {
+            if (entry.getKey() == key) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param action called with the key and holder of each bound holder, in
+     *               least recently used order.
+     */
+    public void forEachBound(BiConsumer<Long, ? super VH> action) {
+        boundHolders.forEach(action);
+    }
+
+    private VH evictEldest() {
+        Iterator<Map.Entry<Long, VH>> iterator = boundHolders.entrySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        VH eldest = iterator.next().getValue();
+        iterator.remove();
+        evictionCount.incrementAndGet();
+        return eldest;
+    }
+
+    /**
+     * Adjusts the keys of the bound holders after items have been inserted
+     * into the data.
+     *
+     * @param firstIndex the inclusive index of the first item inserted.
+     * @param lastIndex  the inclusive index of the last item inserted.
+     */
+    public void onItemsInserted(int firstIndex,
+                                int lastIndex) {
+        int count = lastIndex - firstIndex + 1;
+        shiftKeys(firstIndex, Integer.MAX_VALUE, count);
+    }
+
+    /**
+     * Scraps the holders bound to the deleted items and adjusts the keys of
+     * the holders that follow them.
+     *
+     * @param firstIndex the inclusive index of the first item deleted.
+     * @param lastIndex  the inclusive index of the last item deleted.
+     */
+    public void onItemsDeleted(int firstIndex,
+                               int lastIndex) {
+        Iterator<Map.Entry<Long, VH>> iterator = boundHolders.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, VH> entry = iterator.next();
+            long index = entry.getKey();
+            if (index >= firstIndex && index <= lastIndex) {
+                iterator.remove();
+                scrap(entry.getValue());
+            }
+        }
+        int count = lastIndex - firstIndex + 1;
+        shiftKeys(lastIndex + 1, Integer.MAX_VALUE, -count);
+    }
+
+    /**
+     * Moves the holders with their items, so a moved item is still a hit and
+     * only needs its index updating when it is next rendered.
+     *
+     * @param fromIndex the index of the first item before the move.
+     * @param toIndex   the index of the first item after the move.
+     * @param itemCount the number of items moved.
+     */
+    public void onItemsMoved(int fromIndex,
+                             int toIndex,
+                             int itemCount) {
+        if (fromIndex == toIndex || itemCount <= 0 || boundHolders.isEmpty()) {
+            return;
+        }
+        var reordered = new LinkedHashMap<Long, VH>(boundHolders.size() * 2);
+        boundHolders.forEach((index, viewHolder) -> reordered.put(
+                (long) movedIndex(index.intValue(), fromIndex, toIndex, itemCount), viewHolder
+        ));
+        boundHolders.clear();
+        boundHolders.putAll(reordered);
+    }
+
+    /**
+     * @param index     an index before the move.
+     * @param fromIndex the index of the first item before the move.
+     * @param toIndex   the index of the first item after the move.
+     * @param itemCount the number of items moved.
+     * @return the index after the move.
+     */
+    static int movedIndex(int index,
+                          int fromIndex,
+                          int toIndex,
+                          int itemCount) {
+        if (index >= fromIndex && index < fromIndex + itemCount) {
+            return index - fromIndex + toIndex;
+        }
+        if (toIndex < fromIndex && index >= toIndex && index < fromIndex) {
+            return index + itemCount;
+        }
+        if (toIndex > fromIndex && index >= fromIndex + itemCount && index < toIndex + itemCount) {
+            return index - itemCount;
+        }
+        return index;
+    }
+
+    // moves holders keyed within the inclusive range by delta, keeping the
+    // recycling order intact.
+    private void shiftKeys(int fromIndex,
+                           int toIndex,
+                           int delta) {
+        if (delta == 0 || boundHolders.isEmpty()) {
+            return;
+        }
+        var reordered = new LinkedHashMap<Long, VH>(boundHolders.size() * 2);
+        boundHolders.forEach((index, viewHolder) -> {
+            boolean inRange = index >= fromIndex && index <= toIndex;
+            reordered.put(inRange ? index + delta : index, viewHolder);
+        });
+        boundHolders.clear();
+        boundHolders.putAll(reordered);
+    }
+
+    /**
+     * Unbinds every holder, keeping them for reuse up to the pools capacity.
+     * Used when the whole data set has changed.
+     */
+    public void scrapAll() {
+        var unbound = new ArrayList<>(boundHolders.values());
+        boundHolders.clear();
+        unbound.forEach(this::scrap);
+    }
+
+    private void scrap(VH viewHolder) {
+        if (size() < capacity) {
+            scrapHolders.push(viewHolder);
+        }
+    }
+
+    /**
+     * Sets the maximum number of holders kept by the pool. When shrinking,
+     * scrapped holders are dropped first and then the least recently used
+     * bound holders.
+     *
+     * @param capacity the maximum number of holders, at least 1.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        while (size() > capacity && !scrapHolders.isEmpty()) {
+            scrapHolders.poll();
+        }
+        while (size() > capacity && evictEldest() != null) {
+            // evicted holders are released for garbage collection
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of holders currently owned by the pool.
+     */
+    public int size() {
+        return boundHolders.size() + scrapHolders.size();
+    }
+
+    /**
+     * @return the number of requests for an index that already had a bound
+     * holder.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of requests that required a new holder to be created.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of requests served by rebinding an existing holder
+     * to a new index.
+     */
+    public long getRecycleCount() {
+        return recycleCount.get();
+    }
+
+    /**
+     * @return the number of holders taken from the index they were bound to
+     * because the pool was full.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public void resetCounters() {
+        hitCount.set(0);
+        missCount.set(0);
+        recycleCount.set(0);
+        evictionCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "ViewHolderPool{" +
+                "capacity=" + capacity +
+                ", size=" + size() +
+                ", hits=" + hitCount +
+                ", misses=" + missCount +
+                ", recycles=" + recycleCount +
+                ", evictions=" + evictionCount +
+                '}';
+    }
+}
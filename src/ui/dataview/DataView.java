@@ -2,7 +2,10 @@ package ui.dataview;
 
 import data.MyModel;
 import domain.usecase.UseCaseObservableList;
+import genericlistview.DeferredModelListener;
 import genericlistview.ModelListener;
+import utils.Trace;
+import utils.Trace.Subsystem;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
@@ -12,7 +15,6 @@ public class DataView
 
     @SuppressWarnings("unused")
     private static final String TAG = "DataView";
-    private final boolean isLogging = false;
 
     static final String[] columnNames = {
             "First name",
@@ -34,9 +36,8 @@ public class DataView
         @Override
         public int getRowCount() {
 
-            if (isLogging) System.out.println(
-                    TAG + "getRowCount: calling useCase.getItemCount"
-            );
+            Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                    "getRowCount: calling useCase.getItemCount");
 
             return useCase.getItemCount();
         }
@@ -49,11 +50,8 @@ public class DataView
         @Override
         public Object getValueAt(int rowIndex, int columnIndex) {
 
-            if (isLogging) {
-                System.out.println(
-                        TAG + "getValueAt: " + "useCase: getModels called."
-                );
-            }
+            Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                    "getValueAt: " + "useCase: getModels called.");
 
             var myModel = (MyModel) useCase.getModels().get(rowIndex);
             switch (columnIndex) {
@@ -70,10 +68,13 @@ public class DataView
     JScrollPane view = new JScrollPane(table);
     DataViewTableModel tableModel = new DataViewTableModel();
     UseCaseObservableList useCase;
+    DeferredModelListener useCaseListener;
 
     public DataView(UseCaseObservableList useCase) {
         this.useCase = useCase;
-        this.useCase.addModelListener(this);
+        // changes made while the table is hidden are applied when it shows
+        useCaseListener = new DeferredModelListener(this, view);
+        this.useCase.addModelListener(useCaseListener);
 
         table.setModel(tableModel);
         table.setFillsViewportHeight(true);
@@ -111,7 +112,22 @@ public class DataView
         tableModel.fireTableRowsDeleted(firstIndex, lastIndex);
     }
 
+    @Override
+    public void notifyItemsMoved(int fromIndex, int toIndex, int itemCount) {
+        int firstRow = Math.min(fromIndex, toIndex);
+        int lastRow = Math.max(fromIndex, toIndex) + itemCount - 1;
+        tableModel.fireTableRowsUpdated(firstRow, lastRow);
+    }
+
     public JScrollPane getView() {
         return view;
     }
+
+    /**
+     * Stops listening to the use case, so the view can be collected.
+     */
+    public void dispose() {
+        useCase.removeModelListener(useCaseListener);
+        useCaseListener.dispose();
+    }
 }
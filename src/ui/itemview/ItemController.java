@@ -6,6 +6,8 @@ import domain.usecase.UseCaseObservableList;
 import domain.usecase.UseCaseObservableList.FieldName;
 import ui.mylistview.MyGenericListViewController;
 import utils.TextListener;
+import utils.Trace;
+import utils.Trace.Subsystem;
 
 import javax.swing.text.JTextComponent;
 import java.awt.event.ActionEvent;
@@ -60,7 +62,8 @@ public class ItemController
         } else if (ControlCommand.REMOVE_MEMBER_COMMAND.name().equals(command)) {
             listViewController.removeMembership(index);
         } else if (ControlCommand.DELETE_RECORD_COMMAND.name().equals(command)) {
-            System.out.println(TAG + "actionPerformed: Delete command. Cleaning up before deletion.");
+            Trace.log(Subsystem.EDITOR, TAG, () ->
+                    "actionPerformed: Delete command. Cleaning up before deletion.");
             ((ItemViewImpl) view).removeViewListeners();
             removeFieldChangedListener(listViewController);
             listViewController.deleteMember(index);
@@ -74,7 +77,8 @@ public class ItemController
         String newText = source.getText();
         String componentName = source.getName();
 
-        System.out.println(TAG + "#textChanged: componentName=" + componentName +
+        Trace.log(Subsystem.TEXT_LISTENER, TAG, () ->
+                "#textChanged: componentName=" + componentName +
                 " FieldName.FIRST_NAME=" + FieldName.FIRST_NAME.name() +
                 " areEqual=" + (FieldName.FIRST_NAME.name().equals(componentName)));
 
@@ -91,7 +95,8 @@ public class ItemController
             notifyFieldChangedListeners(FieldName.AGE, newText);
         }
         else {
-            System.out.println(TAG + "#textChanged: unrecognised component name=" + componentName);
+            Trace.log(Subsystem.TEXT_LISTENER, TAG, () ->
+                    "#textChanged: unrecognised component name=" + componentName);
         }
     }
 
@@ -1,14 +1,18 @@
 package ui.itemview;
 
 import data.MyModel;
+import domain.usecase.UseCaseObservableList.FieldName;
 import utils.RoundedPanel;
 import utils.TextListener;
+import utils.Trace;
+import utils.Trace.Subsystem;
 
 import javax.swing.*;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import javax.swing.text.JTextComponent;
 import javax.swing.text.PlainDocument;
+import java.util.Set;
 
 import static ui.mylistview.MyGenericListViewController.ControlCommand;
 
@@ -25,6 +29,9 @@ public class ItemViewImpl
     private final ItemController controller;
     private final TextListener[] textListeners = new TextListener[3];
     private MyModel model;
+    private boolean isListening;
+    // true when the values were stamped by bindStamp, without listeners
+    private boolean isStamped;
 
     public ItemViewImpl(ItemController controller) {
 
@@ -35,6 +42,10 @@ public class ItemViewImpl
 
         this.controller = controller;
 
+        textListeners[0] = new TextListener(formView.getFirstNameField());
+        textListeners[1] = new TextListener(formView.getLastNameField());
+        textListeners[2] = new TextListener(formView.getAgeField());
+
         addControlCommands();
         addViewListeners();
     }
@@ -68,35 +79,39 @@ public class ItemViewImpl
 
     /**
      * Adds listeners interested in changes to values in the
-     * views components.
+     * views components. Does nothing if they are already added.
      */
     public void addViewListeners() {
+        if (isListening) {
+            return;
+        }
+        isListening = true;
         addFormViewListeners();
         addControlListeners();
     }
 
+    /**
+     * Removes the listeners added by {@link #addViewListeners()}. Does
+     * nothing if they are already removed.
+     */
     public void removeViewListeners() {
+        if (!isListening) {
+            return;
+        }
+        isListening = false;
         removeFormViewListeners();
         removeControlListeners();
     }
 
     /**
      * Adds listeners interested in changes to values triggered by events in the
-     * views (mostly text based) components.
+     * views (mostly text based) components. The text listeners follow their
+     * fields documents, so are only created once.
      */
     private void addFormViewListeners() {
-
-        var firstName = new TextListener(formView.getFirstNameField());
-        firstName.addTextChangedListener(controller);
-        textListeners[0] = firstName;
-
-        var lastName = new TextListener(formView.getLastNameField());
-        lastName.addTextChangedListener(controller);
-        textListeners[1] = lastName;
-
-        var age = new TextListener(formView.getAgeField());
-        age.addTextChangedListener(controller);
-        textListeners[2] = age;
+        for (var textListener : textListeners) {
+            textListener.addTextChangedListener(controller);
+        }
     }
 
     private void removeFormViewListeners() {
@@ -136,6 +151,7 @@ public class ItemViewImpl
         newModel = model == null ? new MyModel.Builder().build() : (MyModel) model;
         oldModel = this.model == null ? new MyModel.Builder().build() : this.model;
 
+        isStamped = false;
         if (!oldModel.equals(newModel)) {
             this.model = newModel;
 
@@ -171,10 +187,66 @@ public class ItemViewImpl
                 controlsView.getIsMemberCheckBox().setSelected(newModel.isMember());
             }
 
-            System.out.println(TAG + "bindModel:" + " model=" + model);
+            if (Trace.isEnabled(Subsystem.RENDERER)) {
+                Trace.log(Subsystem.RENDERER, TAG, () -> "bindModel:" + " model=" + model);
+            }
         }
     }
 
+    /**
+     * Binds only the fields of the model that are known to have changed,
+     * without comparing the rest of the model to the one already bound.
+     *
+     * @param model  the model with values to be bound.
+     * @param fields the fields to update in the view.
+     */
+    public void bindFields(MyModel model,
+                           Set<FieldName> fields) {
+        if (fields.contains(FieldName.FIRST_NAME)) {
+            updateTextField(model.getFirstName(), formView.getFirstNameField(), textListeners[0]);
+        }
+        if (fields.contains(FieldName.LAST_NAME)) {
+            updateTextField(model.getLastName(), formView.getLastNameField(), textListeners[1]);
+        }
+        if (fields.contains(FieldName.AGE)) {
+            updateTextField(String.valueOf(model.getAge()), formView.getAgeField(), textListeners[2]);
+        }
+        if (fields.contains(FieldName.MEMBER)) {
+            controlsView.getIsMemberCheckBox().setSelected(model.isMember());
+        }
+        this.model = model;
+
+        if (Trace.isEnabled(Subsystem.RENDERER)) {
+            Trace.log(Subsystem.RENDERER, TAG, () -> "bindFields: fields=" + fields + " model=" + model);
+        }
+    }
+
+    /**
+     * A cheap bind used while the list is being flung. The values are stamped
+     * straight into the fields with the listeners removed, without swapping
+     * documents. The view must be bound again with {@link #bindModel(Object)},
+     * and its listeners added, before it is used for anything but display.
+     *
+     * @param model the model with values to be stamped.
+     */
+    public void bindStamp(MyModel model) {
+        removeViewListeners();
+        formView.getFirstNameField().setText(model.getFirstName());
+        formView.getLastNameField().setText(model.getLastName());
+        formView.getAgeField().setText(String.valueOf(model.getAge()));
+        controlsView.getIsMemberCheckBox().setSelected(model.isMember());
+        this.model = model;
+        isStamped = true;
+    }
+
+    /**
+     * @return true if the values were stamped by {@link #bindStamp(MyModel)}
+     * and the view has not been fully bound since.
+     */
+    public boolean isStamped() {
+        return isStamped;
+    }
+
     private void updateTextField(String newText,
                                  JTextComponent component,
                                  TextListener listener) {
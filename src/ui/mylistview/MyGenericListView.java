@@ -2,14 +2,23 @@ package ui.mylistview;
 
 import data.MyModel;
 import domain.usecase.UseCaseObservableList;
+import domain.usecase.UseCaseObservableList.FieldName;
 import genericlistview.AbstractGenericListView;
+import genericlistview.ChangeSet;
+import genericlistview.ModelListener;
+import genericlistview.PagedDataSource;
 import ui.itemview.ItemController;
 import ui.itemview.ItemView;
 import ui.itemview.ItemViewImpl;
 import ui.mylistview.MyGenericListView.MyViewHolder;
+import utils.Trace;
+import utils.Trace.Subsystem;
 
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 public class MyGenericListView
         extends AbstractGenericListView<MyViewHolder> {
@@ -17,8 +26,6 @@ public class MyGenericListView
     @SuppressWarnings("unused")
     private static final String TAG = "MyGenericListView" + ": ";
 
-    private final boolean isLogging = false;
-
     protected class MyViewHolder
             extends ViewHolder {
 
@@ -53,35 +60,131 @@ public class MyGenericListView
          */
         @Override
         public void prepareEditingStopped() {
-            if (isLogging)
-                System.out.println(TAG + "editingStopped: removing listeners");
+            Trace.log(Subsystem.LIST_VIEW, TAG, () -> "editingStopped: removing listeners");
 //            ((ItemViewImpl) itemView).removeViewListeners();
         }
     }
 
+    /**
+     * Passes the notifications of the use case on to the list view, except
+     * while it shows a paged data source, whose rows they do not describe.
+     * The list is reset when it switches back to the use case.
+     */
+    private class UseCaseListener
+            implements ModelListener {
+
+        @Override
+        public void notifyDatasetChanged() {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyDatasetChanged();
+            }
+        }
+
+        @Override
+        public void notifyDataStructureChanged() {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyDataStructureChanged();
+            }
+        }
+
+        @Override
+        public void notifyItemsInserted(int firstIndex,
+                                        int lastIndex) {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyItemsInserted(firstIndex, lastIndex);
+            }
+        }
+
+        @Override
+        public void notifyItemsUpdated(int firstIndex,
+                                       int lastIndex) {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyItemsUpdated(firstIndex, lastIndex);
+            }
+        }
+
+        @Override
+        public void notifyItemUpdated(int index) {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyItemUpdated(index);
+            }
+        }
+
+        @Override
+        public void notifyItemUpdated(int index,
+                                      Object payload) {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyItemUpdated(index, payload);
+            }
+        }
+
+        @Override
+        public void notifyItemsDeleted(int firstIndex,
+                                       int lastIndex) {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyItemsDeleted(firstIndex, lastIndex);
+            }
+        }
+
+        @Override
+        public void notifyItemsMoved(int fromIndex,
+                                     int toIndex,
+                                     int itemCount) {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyItemsMoved(fromIndex, toIndex, itemCount);
+            }
+        }
+
+        @Override
+        public void notifyChanges(ChangeSet changes) {
+            if (pagedModels == null) {
+                MyGenericListView.this.notifyChanges(changes);
+            }
+        }
+    }
+
+    // bound to rows whose page of a paged data source is still loading
+    private static final MyModel PLACEHOLDER = new MyModel.Builder().build();
+
     private final UseCaseObservableList useCase;
     private final MyGenericListViewController listViewController;
+    private final ModelListener useCaseListener = new UseCaseListener();
+    private PagedDataSource<MyModel> pagedModels;
 
     public MyGenericListView(UseCaseObservableList useCase,
                              MyGenericListViewController listViewController) {
+        this(useCase, listViewController, Backend.TABLE);
+    }
+
+    public MyGenericListView(UseCaseObservableList useCase,
+                             MyGenericListViewController listViewController,
+                             Backend backend) {
 
+        super(backend);
         this.useCase = useCase;
         this.listViewController = listViewController;
+        setHasStableIds(true);
     }
 
     @Override
     protected MyViewHolder onCreateViewHolder(int index,
                                               boolean isEditor) {
 
-        if (isLogging)
-            System.out.println(TAG + "onCreateViewHolder: " + "for index: " + index + " isEditor=" + isEditor);
+        if (Trace.isEnabled(Subsystem.LIST_VIEW)) {
+            Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                    "onCreateViewHolder: " + "for index: " + index + " isEditor=" + isEditor);
+        }
 
-        MyModel model = useCase.getModels().get(index);
+        MyModel model = getModel(index);
         ItemController controller = new ItemController(
                 listViewController, useCase, index
         );
         ItemViewImpl view = (ItemViewImpl) controller.getView();
         view.bindModel(model);
+        // renderer views are only ever painted, so never listen for edits
+        if (!isEditor) {
+            view.removeViewListeners();
+        }
 
         return new MyViewHolder(controller);
     }
@@ -101,40 +204,109 @@ public class MyGenericListView
                                     boolean isEditor,
                                     MyViewHolder viewHolder) {
 
-        MyModel newModel = useCase.getModels().get(index);
+        MyModel newModel = getModel(index);
         MyModel oldModel = (MyModel) viewHolder.getModel();
         ItemViewImpl view = (ItemViewImpl)viewHolder.itemView;
         ItemController controller = view.getController();
 
-        if (!newModel.equals(oldModel)) {
-            view.removeViewListeners();
-            view.bindModel(newModel);
-            view.addViewListeners();
+        if (view.isStamped() || !newModel.equals(oldModel)) {
+            bindModel(view, newModel, isEditor);
         }
 
         if (controller.getIndex() != index) {
             controller.setIndex(index);
         }
 
-        if (isLogging)
-            recyclableViews.forEach(vh ->
-                System.out.println(TAG + "onBindViewHolder:" +
-                        " recyclable view=" +
-                        " view holder at:" +
-                        " hasModel=" + vh.getModel()
-                )
-        );
+        if (Trace.isEnabled(Subsystem.LIST_VIEW)) {
+            Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                    "onBindViewHolder:" +
+                    " index=" + index +
+                    " pool=" + getRecycledViewPool());
+        }
+    }
+
+    /**
+     * Called when a view is still bound to its model and the model has only
+     * had fields changed since. The use case sends the set of changed
+     * {@link FieldName}s as the payload, so only those fields are updated
+     * in the view, without comparing whole models.
+     *
+     * @param index      The index of the item within the data set.
+     * @param isEditor   Tells the implementer if the view returned should
+     * @param viewHolder The <code>ViewHolder</code> bound to the model.
+     * @param payloads   The sets of changed fields.
+     */
+    @Override
+    protected void onBindViewHolder(int index,
+                                    boolean isEditor,
+                                    MyViewHolder viewHolder,
+                                    List<Object> payloads) {
+
+        var view = (ItemViewImpl) viewHolder.itemView;
+        var fields = EnumSet.noneOf(FieldName.class);
+        for (Object payload : payloads) {
+            if (!(payload instanceof Set)) {
+                onBindViewHolder(index, isEditor, viewHolder);
+                return;
+            }
+            Set<?> changed = (Set<?>) payload;
+            for (Object field : changed) {
+                fields.add((FieldName) field);
+            }
+        }
+        if (view.isStamped()) {
+            onBindViewHolder(index, isEditor, viewHolder);
+            return;
+        }
+
+        view.removeViewListeners();
+        view.bindFields(getModel(index), fields);
+        if (isEditor) {
+            view.addViewListeners();
+        }
+
+        if (view.getController().getIndex() != index) {
+            view.getController().setIndex(index);
+        }
+
+        if (Trace.isEnabled(Subsystem.LIST_VIEW)) {
+            Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                    "onBindViewHolder: index=" + index + " fields=" + fields);
+        }
+    }
+
+    /**
+     * Called while the list is being flung. Only the text is stamped into the
+     * view, its listeners are removed until it is fully bound by
+     * {@link #onBindViewHolder(int, boolean, MyViewHolder)} when scrolling
+     * settles. A view already fully bound to the same model is left alone.
+     *
+     * @param index      The index of the item within the data set.
+     * @param viewHolder A recycled <code>ViewHolder</code>
+     */
+    @Override
+    protected void onBindViewHolderLightweight(int index,
+                                               MyViewHolder viewHolder) {
+
+        MyModel newModel = getModel(index);
+        var view = (ItemViewImpl) viewHolder.itemView;
+        if (view.isStamped() || !newModel.equals(viewHolder.getModel())) {
+            view.bindStamp(newModel);
+        }
+        // a stamped view recycled to another row follows it too
+        if (view.getController().getIndex() != index) {
+            view.getController().setIndex(index);
+        }
     }
 
     /**
      * Called by the list model (TableModel) while rendering views. The model
      * returned by this method is passed into the renderer for the cell. The
-     * renderer will then look for a <code>ViewHolder</code> that shares the
-     * same index in its <code>HashTable</code> of recyclable views. If the
-     * view for this index has been rendered before its <code>ViewHolder</code>
-     * will be retrieved and passed to
+     * renderer will then look for a <code>ViewHolder</code> in its pool of
+     * recycled views. If a view holder is available, either the one last bound
+     * to this index or the least recently used one, it will be passed to
      * {@link #onBindViewHolder(int, boolean, MyViewHolder)} for reprocessing.
-     * If the view has not been rendered before the model will be passed to
+     * If the pool has spare capacity the model will be passed to
      * {@link #onCreateViewHolder(int, boolean)} so that a new
      * <code>ViewHolder</code> can be constructed.
      *
@@ -143,11 +315,11 @@ public class MyGenericListView
      */
     @Override
     protected Object getValueAt(int index) {
-        int size = useCase.getItemCount();
+        int size = getItemCount();
 
         // edge case: There are no elements in the list
         // Return an empty object.
-        if (useCase.getModels().isEmpty()) {
+        if (size == 0) {
             return new Object();
         }
 
@@ -161,7 +333,7 @@ public class MyGenericListView
 //        if (isLogging) System.out.println(
 //                TAG + "getValueAt: index=" + index + " useCase.getModels called. Models size=" + useCase.getModels().size()
 //        );
-        return useCase.getModels().get(index);
+        return getModel(index);
     }
 
     /**
@@ -179,14 +351,80 @@ public class MyGenericListView
         MyModel updatedModel = (MyModel) model;
         useCase.updateModel(index, updatedModel);
 
-        if (isLogging)
-            System.out.println(
-                TAG + "setValueAt:" + " updatedModel=" + updatedModel
-        );
+        Trace.log(Subsystem.LIST_VIEW, TAG, () ->
+                "setValueAt:" + " updatedModel=" + updatedModel);
     }
 
     @Override
     protected int getItemCount() {
-        return useCase.getItemCount();
+        return pagedModels != null ? pagedModels.getItemCount() : useCase.getItemCount();
+    }
+
+    /**
+     * The use case gives each model an id that follows it around the list.
+     * Rows of a paged data source are never moved, so are their own id.
+     */
+    @Override
+    protected long getItemId(int index) {
+        return pagedModels != null ? index : useCase.getItemId(index);
+    }
+
+    /**
+     * Rows whose page is still loading show a placeholder and may not be
+     * edited. Rows from a paged data source are read only, as edits are made
+     * through the use case.
+     */
+    @Override
+    protected boolean isItemEditable(int index) {
+        return pagedModels == null;
+    }
+
+    /**
+     * @return the listener to register with the use case in place of this
+     * list view, it ignores the use case while a paged data source is shown.
+     */
+    public ModelListener getUseCaseListener() {
+        return useCaseListener;
+    }
+
+    /**
+     * Shows the models of a paged data source rather than those of the use
+     * case, for data sets too large to hold in memory. Rows are bound to a
+     * placeholder until their page has loaded, and are rebound when the data
+     * source notifies that it has arrived. Changes to the use case are
+     * ignored meanwhile, and the list is reset to the use case models when
+     * the paged data source is removed.
+     *
+     * @param pagedModels the paged data source, or null to show the use case
+     *                    models again.
+     */
+    public void setPagedDataSource(PagedDataSource<MyModel> pagedModels) {
+        if (this.pagedModels != null) {
+            this.pagedModels.removeModelListener(this);
+        }
+        this.pagedModels = pagedModels;
+        if (pagedModels != null) {
+            pagedModels.addModelListener(this);
+        }
+        notifyDatasetChanged();
+    }
+
+    // only the editors view listens for edits, the renderers views are stamps
+    private void bindModel(ItemViewImpl view,
+                           MyModel model,
+                           boolean isEditor) {
+        view.removeViewListeners();
+        view.bindModel(model);
+        if (isEditor) {
+            view.addViewListeners();
+        }
+    }
+
+    private MyModel getModel(int index) {
+        if (pagedModels == null) {
+            return useCase.getModels().get(index);
+        }
+        MyModel model = pagedModels.get(index);
+        return model != null ? model : PLACEHOLDER;
     }
 }
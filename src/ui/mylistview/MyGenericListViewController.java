@@ -5,10 +5,14 @@ import domain.usecase.FieldChangedListener;
 import domain.usecase.UseCaseObservableList;
 import domain.usecase.UseCaseObservableList.FieldName;
 import genericlistview.ControlActionListener;
+import genericlistview.DeferredModelListener;
 import ui.itemview.ItemController;
+import utils.Trace;
+import utils.Trace.Subsystem;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MyGenericListViewController
         implements
@@ -38,14 +42,32 @@ public class MyGenericListViewController
         //  See UI action commands in Swing UI classes
     }
 
+    // numbers each list view, so every one publishes its metrics under its
+    // own name
+    private static final AtomicInteger instanceCount = new AtomicInteger();
+
     private final UseCaseObservableList useCase;
     private final MyGenericListView listView;
+    private final DeferredModelListener useCaseListener;
 
     public MyGenericListViewController(UseCaseObservableList useCase) {
 
         this.useCase = useCase;
         listView = new MyGenericListView(useCase, this);
-        useCase.addModelListener(listView);
+        // changes made while the list is hidden are applied when it shows
+        useCaseListener = new DeferredModelListener(listView.getUseCaseListener(), listView.getView());
+        useCase.addModelListener(useCaseListener);
+        listView.publishMetrics("MyGenericListView-" + instanceCount.incrementAndGet());
+    }
+
+    /**
+     * Stops listening to the use case and releases the list view, unpublishing
+     * its metrics. The controller and its view may not be used afterwards.
+     */
+    public void dispose() {
+        useCase.removeModelListener(useCaseListener);
+        useCaseListener.dispose();
+        listView.dispose();
     }
 
     /**
@@ -88,7 +110,7 @@ public class MyGenericListViewController
      */
     @Override
     public void addMembership(int index) {
-        System.out.println(TAG + "addMembership: for index:" + index);
+        Trace.log(Subsystem.USE_CASE, TAG, () -> "addMembership: for index:" + index);
         useCase.addMembership(index);
     }
 
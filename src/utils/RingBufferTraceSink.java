@@ -0,0 +1,129 @@
+package utils;
+
+import utils.Trace.Subsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link TraceSink} that keeps the most recent messages in a fixed size
+ * ring buffer in memory. Once full, each new message overwrites the oldest,
+ * so tracing never grows the heap or blocks on console I/O.
+ */
+public class RingBufferTraceSink
+        implements TraceSink {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "RingBufferTraceSink" + ": ";
+
+    /**
+     * A single trace message as recorded by the sink.
+     */
+    public static final class Entry {
+
+        private final long timeNanos;
+        private final String threadName;
+        private final Subsystem subsystem;
+        private final String tag;
+        private final String message;
+
+        private Entry(long timeNanos,
+                      String threadName,
+                      Subsystem subsystem,
+                      String tag,
+                      String message) {
+            this.timeNanos = timeNanos;
+            this.threadName = threadName;
+            this.subsystem = subsystem;
+            this.tag = tag;
+            this.message = message;
+        }
+
+        /**
+         * @return the value of {@link System#nanoTime()} when recorded.
+         */
+        public long getTimeNanos() {
+            return timeNanos;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public Subsystem getSubsystem() {
+            return subsystem;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return timeNanos + " [" + threadName + "] " + subsystem + " " + tag + message;
+        }
+    }
+
+    private final Entry[] entries;
+    // the index the next entry is written to
+    private int head;
+    private long recordedCount;
+
+    public RingBufferTraceSink(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        entries = new Entry[capacity];
+    }
+
+    @Override
+    public synchronized void trace(Subsystem subsystem,
+                                   String tag,
+                                   String message) {
+        entries[head] = new Entry(
+                System.nanoTime(),
+                Thread.currentThread().getName(),
+                subsystem,
+                tag,
+                message
+        );
+        head = (head + 1) % entries.length;
+        recordedCount++;
+    }
+
+    /**
+     * @return the buffered entries, oldest first.
+     */
+    public synchronized List<Entry> getEntries() {
+        int size = (int) Math.min(recordedCount, entries.length);
+        var snapshot = new ArrayList<Entry>(size);
+        int start = (head - size + entries.length) % entries.length;
+        for (int i = 0; i < size; i++) {
+            snapshot.add(entries[(start + i) % entries.length]);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the number of entries recorded since created or last cleared,
+     * including those that have since been overwritten.
+     */
+    public synchronized long getRecordedCount() {
+        return recordedCount;
+    }
+
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        head = 0;
+        recordedCount = 0;
+    }
+}
@@ -0,0 +1,111 @@
+package utils;
+
+import java.util.function.Supplier;
+
+/**
+ * A tracing surface for the hot paths of the list view and its use case.
+ * Tracing is switched on and off at runtime for each {@link Subsystem}. When
+ * a subsystem is off, a call to {@link #log(Subsystem, String, Supplier)}
+ * costs a single volatile read; the message supplier is never called, so no
+ * strings are built and nothing is written. A supplier that captures local
+ * variables is still allocated at the call site, so calls made for every
+ * row are guarded with {@link #isEnabled(Subsystem)}.
+ * <p>
+ * Messages from enabled subsystems go to a pluggable {@link TraceSink}, by
+ * default a {@link RingBufferTraceSink}. Subsystems can also be enabled at
+ * start up with a comma separated list in the <code>genericlistview.trace</code>
+ * system property, for example <code>-Dgenericlistview.trace=RENDERER,EDITOR</code>.
+ */
+public final class Trace {
+
+    @SuppressWarnings("unused")
+    private static final String TAG = "Trace" + ": ";
+
+    public static final String TRACE_PROPERTY = "genericlistview.trace";
+    public static final int DEFAULT_BUFFER_CAPACITY = 4096;
+
+    /**
+     * The parts of the application that can be traced independently.
+     */
+    public enum Subsystem {
+        // table model events and notifications in the list view
+        LIST_VIEW,
+        RENDERER,
+        EDITOR,
+        USE_CASE,
+        TEXT_LISTENER
+    }
+
+    private static final RingBufferTraceSink defaultSink =
+            new RingBufferTraceSink(DEFAULT_BUFFER_CAPACITY);
+
+    // one bit per subsystem ordinal
+    private static volatile int enabledSubsystems = parseProperty();
+    private static volatile TraceSink sink = defaultSink;
+
+    private Trace() {}
+
+    public static boolean isEnabled(Subsystem subsystem) {
+        return (enabledSubsystems & (1 << subsystem.ordinal())) != 0;
+    }
+
+    public static synchronized void setEnabled(Subsystem subsystem,
+                                               boolean isEnabled) {
+        int bit = 1 << subsystem.ordinal();
+        enabledSubsystems = isEnabled ?
+                enabledSubsystems | bit :
+                enabledSubsystems & ~bit;
+    }
+
+    public static synchronized void setAllEnabled(boolean isEnabled) {
+        enabledSubsystems = isEnabled ? (1 << Subsystem.values().length) - 1 : 0;
+    }
+
+    /**
+     * Traces a message if the subsystem is enabled.
+     *
+     * @param subsystem the subsystem producing the message.
+     * @param tag       the tag of the class producing the message.
+     * @param message   supplies the message, only called if the subsystem is
+     *                  enabled.
+     */
+    public static void log(Subsystem subsystem,
+                           String tag,
+                           Supplier<String> message) {
+        if (isEnabled(subsystem)) {
+            sink.trace(subsystem, tag, message.get());
+        }
+    }
+
+    /**
+     * @param sink where messages are sent, or null to restore the default
+     *             ring buffer.
+     */
+    public static void setSink(TraceSink sink) {
+        Trace.sink = sink == null ? defaultSink : sink;
+    }
+
+    public static TraceSink getSink() {
+        return sink;
+    }
+
+    /**
+     * @return the ring buffer used when no other sink has been set.
+     */
+    public static RingBufferTraceSink getDefaultSink() {
+        return defaultSink;
+    }
+
+    private static int parseProperty() {
+        String property = System.getProperty(TRACE_PROPERTY, "");
+        int enabled = 0;
+        for (String name : property.split(",")) {
+            for (Subsystem subsystem : Subsystem.values()) {
+                if (subsystem.name().equalsIgnoreCase(name.trim())) {
+                    enabled |= 1 << subsystem.ordinal();
+                }
+            }
+        }
+        return enabled;
+    }
+}
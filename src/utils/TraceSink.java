@@ -0,0 +1,21 @@
+package utils;
+
+import utils.Trace.Subsystem;
+
+/**
+ * Receives the trace messages of the subsystems enabled in {@link Trace}.
+ * Implementations are called on whichever thread is tracing, often the event
+ * dispatch thread, so they should return quickly.
+ */
+@FunctionalInterface
+public interface TraceSink {
+    /**
+     * @param subsystem the subsystem that produced the message.
+     * @param tag       the tag of the class producing the message.
+     * @param message   the message.
+     */
+    void trace(Subsystem subsystem,
+               String tag,
+               String message
+    );
+}
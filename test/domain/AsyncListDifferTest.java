@@ -0,0 +1,111 @@
+package domain;
+
+import data.MyModel;
+import genericlistview.RecordingModelListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Only the latest submission is ever applied, and a diff made stale by edits
+ * is calculated again until the attempts run out, when the snapshot is
+ * applied as a whole new data set.
+ */
+public class AsyncListDifferTest {
+
+    // region helper fields ------------------------------------------------------------------------
+    // diffs are run when the test runs them
+    private final List<Runnable> pendingDiffs = new ArrayList<>();
+    private RecordingModelListener listener;
+    private UseCaseObservableList useCase;
+    private List<MyModel> models;
+    // endregion helper fields ---------------------------------------------------------------------
+
+    private AsyncListDiffer SUT;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        models = List.of(
+                new MyModel.Builder().setFirstName("Ada").setLastName("Lovelace").build(),
+                new MyModel.Builder().setFirstName("Alan").setLastName("Turing").build()
+        );
+        useCase = new UseCaseObservableList();
+        listener = new RecordingModelListener();
+        SUT = new AsyncListDiffer(useCase, pendingDiffs::add);
+        // the listeners are notified on the event dispatch thread
+        SwingUtilities.invokeAndWait(() -> {
+            useCase.setModels(models);
+            useCase.flushNotifications();
+            useCase.addModelListener(listener);
+        });
+    }
+
+    @Test
+    @DisplayName("submit: an older diff finishing after a newer submission is dropped")
+    public void staleDiffIsDropped() throws Exception {
+        // Arrange
+        List<MyModel> older = List.of(models.get(0));
+        List<MyModel> newer = List.of(models.get(1));
+        SwingUtilities.invokeAndWait(() -> SUT.submit(older));
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            // the older diff is calculated, and is applied on a later event
+            runPendingDiffs();
+            SUT.submit(newer);
+        });
+        SwingUtilities.invokeAndWait(this::runPendingDiffs);
+        SwingUtilities.invokeAndWait(useCase::flushNotifications);
+
+        // Assert
+        assertEquals(2, SUT.getGeneration());
+        assertEquals(newer, useCase.getModels());
+        assertEquals(List.of("batch", "deleted 0-0"), listener.events);
+    }
+
+    @Test
+    @DisplayName("submit: edits during each diff lead to a new data set once the attempts run out")
+    public void editsDuringDiffFallBackToDatasetChanged() throws Exception {
+        // Arrange
+        List<MyModel> snapshot = List.of(models.get(1), models.get(0));
+        SwingUtilities.invokeAndWait(() -> SUT.submit(snapshot));
+
+        // Act
+        int diffCount = 0;
+        while (!pendingDiffs.isEmpty()) {
+            boolean isMember = diffCount % 2 == 0;
+            SwingUtilities.invokeAndWait(() -> {
+                if (isMember) {
+                    useCase.addMembership(0);
+                } else {
+                    useCase.removeMembership(0);
+                }
+                useCase.flushNotifications();
+                listener.events.clear();
+            });
+            diffCount++;
+            // each diff is found stale when it returns, and submitted again
+            SwingUtilities.invokeAndWait(this::runPendingDiffs);
+            SwingUtilities.invokeAndWait(() -> {});
+        }
+        SwingUtilities.invokeAndWait(useCase::flushNotifications);
+
+        // Assert
+        assertEquals(AsyncListDiffer.MAX_ATTEMPTS, diffCount);
+        assertEquals(snapshot, useCase.getModels());
+        assertEquals(List.of("batch", "datasetChanged"), listener.events);
+    }
+
+    private void runPendingDiffs() {
+        var diffs = new ArrayList<>(pendingDiffs);
+        pendingDiffs.clear();
+        diffs.forEach(Runnable::run);
+    }
+}
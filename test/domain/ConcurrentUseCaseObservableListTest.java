@@ -0,0 +1,63 @@
+package domain;
+
+import data.MyModel;
+import genericlistview.ChangeSet;
+import genericlistview.RecordingModelListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Edits are applied by a single writer, and the listeners are sent the
+ * edits made while they were busy as one merged batch, along with the
+ * snapshot the batch describes.
+ */
+public class ConcurrentUseCaseObservableListTest {
+
+    // region helper fields ------------------------------------------------------------------------
+    private final List<Runnable> pendingDeliveries = new ArrayList<>();
+    private RecordingModelListener listener;
+    // endregion helper fields ---------------------------------------------------------------------
+
+    private ConcurrentUseCaseObservableList SUT;
+
+    @BeforeEach
+    public void setup() {
+        SUT = new ConcurrentUseCaseObservableList(Runnable::run, pendingDeliveries::add);
+        // records the item count each batch is delivered at
+        listener = new RecordingModelListener() {
+            @Override
+            public void notifyChanges(ChangeSet changes) {
+                events.add("batch of " + SUT.getItemCount());
+                changes.dispatchTo(this);
+            }
+        };
+        SUT.addModelListener(listener);
+    }
+
+    @Test
+    @DisplayName("deliver: edits made before the listeners are notified are merged into one batch")
+    public void editsAreMerged() {
+        // Arrange
+        var model = new MyModel.Builder().setFirstName("Ada").build();
+
+        // Act
+        SUT.addModel(model);
+        SUT.insertModels(0, List.of(model, model));
+        SUT.deleteModels(1, 1);
+        int notifiedCount = SUT.getItemCount();
+        pendingDeliveries.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(1, pendingDeliveries.size());
+        assertEquals(0, notifiedCount);
+        assertEquals(2, SUT.getSnapshot().getItemCount());
+        assertEquals(List.of("batch of 2", "inserted 0-1"), listener.events);
+        assertEquals(SUT.getSnapshot(), SUT.getNotifiedSnapshot());
+    }
+}
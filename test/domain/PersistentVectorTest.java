@@ -0,0 +1,69 @@
+package domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The persistent vector backs the models of the use case, so a version
+ * handed out stays the same however the models are edited afterwards.
+ */
+public class PersistentVectorTest {
+
+    // region constants ----------------------------------------------------------------------------
+    // enough elements for a trie three levels deep
+    private static final int SIZE = 2000;
+    // endregion constants -------------------------------------------------------------------------
+
+    @Test
+    @DisplayName("withAppended, withSet: earlier versions are unchanged")
+    public void earlierVersionsAreUnchanged() {
+        // Arrange
+        var expected = new ArrayList<Integer>();
+        PersistentVector<Integer> SUT = PersistentVector.empty();
+        for (int i = 0; i < SIZE; i++) {
+            SUT = SUT.withAppended(i);
+            expected.add(i);
+        }
+
+        // Act
+        PersistentVector<Integer> edited = SUT.withSet(1500, -1).withAppended(SIZE);
+
+        // Assert
+        assertEquals(expected, SUT);
+        assertEquals(Integer.valueOf(-1), edited.get(1500));
+        assertEquals(SIZE + 1, edited.size());
+        assertEquals(expected, PersistentVector.of(expected));
+    }
+
+    @Test
+    @DisplayName("withInserted, withRemoved, withMoved: elements are shifted as in a list")
+    public void structuralEdits() {
+        // Arrange
+        var expected = new ArrayList<Integer>();
+        for (int i = 0; i < SIZE; i++) {
+            expected.add(i);
+        }
+        PersistentVector<Integer> SUT = PersistentVector.of(expected);
+
+        // Act
+        PersistentVector<Integer> edited = SUT
+                .withInserted(40, List.of(-1, -2))
+                .withRemoved(1000, 1099)
+                .withMoved(0, 500, 10)
+                .withAppended(-3);
+
+        // Assert
+        expected.addAll(40, List.of(-1, -2));
+        expected.subList(1000, 1100).clear();
+        var moved = new ArrayList<>(expected.subList(0, 10));
+        expected.subList(0, 10).clear();
+        expected.addAll(500, moved);
+        expected.add(-3);
+        assertEquals(expected, edited);
+    }
+}
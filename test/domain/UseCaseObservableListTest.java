@@ -0,0 +1,153 @@
+package domain;
+
+import data.MyModel;
+import domain.UseCaseObservableList.FieldName;
+import genericlistview.RecordingModelListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Edits made in a transaction reach the listeners as one batch when it
+ * commits, and none of them do if it is rolled back.
+ */
+public class UseCaseObservableListTest {
+
+    // region helper fields ------------------------------------------------------------------------
+    private RecordingModelListener listener;
+    private List<MyModel> models;
+    // endregion helper fields ---------------------------------------------------------------------
+
+    private UseCaseObservableList SUT;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        models = List.of(
+                new MyModel.Builder().setFirstName("Ada").setLastName("Lovelace").build(),
+                new MyModel.Builder().setFirstName("Alan").setLastName("Turing").build()
+        );
+        SUT = new UseCaseObservableList();
+        listener = new RecordingModelListener();
+        // the listeners are notified on the event dispatch thread
+        SwingUtilities.invokeAndWait(() -> {
+            SUT.setModels(models);
+            SUT.flushNotifications();
+            SUT.addModelListener(listener);
+        });
+    }
+
+    @Test
+    @DisplayName("runInTransaction: the edits are sent as one batch on commit")
+    public void commitSendsOneBatch() throws Exception {
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            SUT.runInTransaction(() -> {
+                SUT.addMembership(0);
+                SUT.addMembership(1);
+            });
+            SUT.flushNotifications();
+        });
+
+        // Assert
+        assertEquals(List.of("batch", "updated 0 [MEMBER]", "updated 1 [MEMBER]"), listener.events);
+        assertTrue(SUT.getModels().get(1).isMember());
+    }
+
+    @Test
+    @DisplayName("runInTransaction: a rejected model rolls back the edits before it")
+    public void validatorFailureRollsBack() throws Exception {
+        // Arrange
+        SUT.setValidator(model -> !model.getLastName().isEmpty());
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            assertThrows(IllegalArgumentException.class, () ->
+                    SUT.runInTransaction(() -> {
+                        SUT.addMembership(0);
+                        SUT.fieldChanged(1, FieldName.LAST_NAME, "");
+                    })
+            );
+            SUT.flushNotifications();
+        });
+
+        // Assert
+        assertEquals(models, SUT.getModels());
+        assertTrue(listener.events.isEmpty());
+        assertFalse(SUT.isInTransaction());
+    }
+
+    @Test
+    @DisplayName("runInTransaction: an Error thrown by the edits rolls back too")
+    public void errorRollsBack() throws Exception {
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            assertThrows(AssertionError.class, () ->
+                    SUT.runInTransaction(() -> {
+                        SUT.addMembership(0);
+                        throw new AssertionError("edit failed");
+                    })
+            );
+            SUT.flushNotifications();
+        });
+
+        // Assert
+        assertEquals(models, SUT.getModels());
+        assertTrue(listener.events.isEmpty());
+        assertFalse(SUT.isInTransaction());
+    }
+
+    @Test
+    @DisplayName("AsyncListDiffer: a snapshot holding a rejected model is dropped")
+    public void rejectedSnapshotIsDropped() throws Exception {
+        // Arrange
+        SUT.setValidator(model -> !model.getLastName().isEmpty());
+        var differ = new AsyncListDiffer(SUT, Runnable::run);
+        var snapshot = List.of(
+                models.get(0),
+                new MyModel.Builder().setFirstName("Alan").setLastName("").build()
+        );
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> differ.submit(snapshot));
+        // the diff is applied on a later event
+        SwingUtilities.invokeAndWait(SUT::flushNotifications);
+
+        // Assert
+        assertEquals(models, SUT.getModels());
+        assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    @DisplayName("removeIf: each contiguous run of deleted models is sent as one range")
+    public void removeIfSendsOneRangePerRun() throws Exception {
+        // Arrange
+        SwingUtilities.invokeAndWait(() -> {
+            SUT.addModels(List.of(
+                    new MyModel.Builder().setFirstName("Grace").setLastName("Hopper").build(),
+                    new MyModel.Builder().setFirstName("Barbara").setLastName("Liskov").build(),
+                    new MyModel.Builder().setFirstName("Leslie").setLastName("Lamport").build()
+            ));
+            SUT.flushNotifications();
+        });
+        listener.events.clear();
+
+        // Act
+        int[] removedCount = new int[1];
+        SwingUtilities.invokeAndWait(() -> {
+            removedCount[0] = SUT.removeIf(model -> model.getLastName().startsWith("L"));
+            SUT.flushNotifications();
+        });
+
+        // Assert
+        assertEquals(3, removedCount[0]);
+        assertEquals(List.of("batch", "deleted 3-4", "deleted 0-0"), listener.events);
+        assertEquals(List.of("Turing", "Hopper"),
+                SUT.getModels().stream().map(MyModel::getLastName).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,134 @@
+package genericlistview;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The change set merges the notifications made during an event dispatch
+ * thread tick into the fewest contiguous ranges, adjusting indices across
+ * interleaved inserts and deletes.
+ */
+public class ChangeSetTest {
+
+    // region helper fields ------------------------------------------------------------------------
+    private RecordingModelListener listener;
+    // endregion helper fields ---------------------------------------------------------------------
+
+    private ChangeSet SUT;
+
+    @BeforeEach
+    public void setup() {
+        SUT = new ChangeSet();
+        listener = new RecordingModelListener();
+    }
+
+    @Test
+    @DisplayName("itemsUpdated: adjacent updates merge into one range")
+    public void adjacentUpdatesMerge() {
+        // Arrange
+        for (int i = 3; i <= 7; i++) {
+            SUT.itemsUpdated(i, i);
+        }
+
+        // Act
+        SUT.dispatchTo(listener);
+
+        // Assert
+        assertEquals(List.of("updated 3-7"), listener.events);
+    }
+
+    @Test
+    @DisplayName("itemsInserted: appending one row at a time merges into one insert")
+    public void appendedInsertsMerge() {
+        // Arrange
+        for (int i = 10; i < 15; i++) {
+            SUT.itemsInserted(i, i);
+        }
+        SUT.itemsUpdated(12, 12);
+
+        // Act
+        SUT.dispatchTo(listener);
+
+        // Assert
+        assertEquals(List.of("inserted 10-14"), listener.events);
+    }
+
+    @Test
+    @DisplayName("itemsDeleted: deleting inserted rows cancels the insert")
+    public void deletingInsertedRowsCancels() {
+        // Arrange
+        SUT.itemsInserted(2, 4);
+        SUT.itemsDeleted(2, 4);
+
+        // Act
+        SUT.dispatchTo(listener);
+
+        // Assert
+        assertTrue(SUT.isEmpty());
+        assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    @DisplayName("dispatchTo: interleaved changes are replayed in adjusted indices")
+    public void interleavedChangesAreAdjusted() {
+        // Arrange, original rows a b c d e f
+        SUT.itemsDeleted(1, 1);     // a c d e f
+        SUT.itemsInserted(0, 1);    // X Y a c d e f
+        SUT.itemsUpdated(4, 4);     // X Y a c d* e f
+        SUT.itemsDeleted(5, 5);     // X Y a c d* f
+        SUT.itemsUpdated(5, 5);     // X Y a c d* f*
+
+        // Act
+        SUT.dispatchTo(listener);
+
+        // Assert
+        assertEquals(List.of(
+                "deleted 4-4",
+                "deleted 1-1",
+                "inserted 0-1",
+                "updated 4-5"
+        ), listener.events);
+    }
+
+    @Test
+    @DisplayName("itemUpdated: payloads are kept unless the row is also updated in full")
+    public void payloadsAreKeptUnlessUpdatedInFull() {
+        // Arrange
+        SUT.itemUpdated(2, "first");
+        SUT.itemUpdated(2, "last");
+        SUT.itemUpdated(4, "age");
+        SUT.itemsUpdated(3, 4);
+        SUT.itemsDeleted(0, 0);
+
+        // Act
+        SUT.dispatchTo(listener);
+
+        // Assert
+        assertEquals(List.of(
+                "deleted 0-0",
+                "updated 1 first",
+                "updated 1 last",
+                "updated 2-3"
+        ), listener.events);
+    }
+
+    @Test
+    @DisplayName("datasetChanged: supersedes every other change")
+    public void datasetChangedSupersedes() {
+        // Arrange
+        SUT.itemsInserted(0, 0);
+        SUT.datasetChanged();
+        SUT.itemsDeleted(3, 3);
+
+        // Act
+        SUT.dispatchTo(listener);
+
+        // Assert
+        assertEquals(List.of("datasetChanged"), listener.events);
+    }
+}
@@ -0,0 +1,36 @@
+package genericlistview;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A listener whose component is not showing is sent nothing until it is,
+ * and is then sent the merged changes as one batch.
+ */
+public class DeferredModelListenerTest {
+
+    @Test
+    @DisplayName("notify: changes to a hidden listener are merged into one batch")
+    public void hiddenChangesAreMerged() {
+        // Arrange
+        var listener = new RecordingModelListener();
+        var SUT = new DeferredModelListener(listener, new JPanel());
+
+        // Act
+        SUT.notifyItemsInserted(3, 3);
+        SUT.notifyItemUpdated(3);
+        SUT.notifyItemsInserted(4, 4);
+        SUT.notifyItemsUpdated(0, 1);
+        boolean isDeferred = listener.events.isEmpty();
+        SUT.dispose();
+
+        // Assert
+        assertTrue(isDeferred);
+        assertEquals(List.of("batch", "inserted 3-4", "updated 0-1"), listener.events);
+    }
+}
@@ -0,0 +1,171 @@
+package genericlistview;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The list diff turns a refreshed list into the notifications needed to
+ * bring a listener in step with it. Replaying those notifications against the
+ * old list must always produce the new list.
+ */
+public class ListDiffTest {
+
+    @Test
+    @DisplayName("calculate: an unchanged list has no changes")
+    public void unchangedListHasNoChanges() {
+        // Arrange
+        var list = List.of("a", "b", "c");
+
+        // Act
+        ChangeSet SUT = ListDiff.calculate(list, new ArrayList<>(list));
+
+        // Assert
+        assertTrue(SUT.isEmpty());
+    }
+
+    @Test
+    @DisplayName("calculate: an edited item is an update")
+    public void editedItemIsAnUpdate() {
+        // Arrange
+        var oldList = List.of("a", "b", "c", "d");
+        var newList = List.of("a", "B", "c", "d");
+        var listener = new ApplyingListener(oldList, newList);
+
+        // Act
+        ListDiff.calculate(oldList, newList).dispatchTo(listener);
+
+        // Assert
+        assertEquals(List.of("updated 1"), listener.events);
+        assertEquals(newList, listener.list);
+    }
+
+    @Test
+    @DisplayName("calculate: a reordered item is a move")
+    public void reorderedItemIsAMove() {
+        // Arrange
+        var oldList = List.of("a", "b", "c", "d", "e", "f");
+        var newList = List.of("a", "c", "d", "e", "b", "f");
+        var listener = new ApplyingListener(oldList, newList);
+
+        // Act
+        ListDiff.calculate(oldList, newList).dispatchTo(listener);
+
+        // Assert
+        assertEquals(List.of("moved 1-1 to 4"), listener.events);
+        assertEquals(newList, listener.list);
+    }
+
+    @Test
+    @DisplayName("calculate: a reordered block is a single range move")
+    public void reorderedBlockIsARangeMove() {
+        // Arrange
+        var oldList = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+        var newList = List.of("a", "f", "g", "b", "c", "d", "e", "h");
+        var listener = new ApplyingListener(oldList, newList);
+
+        // Act
+        ListDiff.calculate(oldList, newList).dispatchTo(listener);
+
+        // Assert
+        assertEquals(List.of("moved 5-6 to 1"), listener.events);
+        assertEquals(newList, listener.list);
+    }
+
+    @Test
+    @DisplayName("calculate: random edits replay to the new list")
+    public void randomEditsReplay() {
+        var random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            // Arrange
+            var oldList = new ArrayList<String>();
+            for (int i = 0; i < 40; i++) {
+                oldList.add("item" + i);
+            }
+            var newList = new ArrayList<>(oldList);
+            for (int edit = 0; edit < 1 + random.nextInt(6); edit++) {
+                int index = random.nextInt(newList.size());
+                switch (random.nextInt(4)) {
+                    case 0 -> newList.remove(index);
+                    case 1 -> newList.add(index, "new" + round + "-" + edit);
+                    case 2 -> newList.set(index, newList.get(index) + "*");
+                    default -> newList.add(random.nextInt(newList.size()), newList.remove(index));
+                }
+            }
+            var listener = new ApplyingListener(oldList, newList);
+
+            // Act
+            ListDiff.calculate(oldList, newList).dispatchTo(listener);
+
+            // Assert
+            assertEquals(newList, listener.list, "round " + round);
+        }
+    }
+
+    // applies each notification to a copy of the old list
+    private static class ApplyingListener
+            extends ModelListenerAdapter {
+
+        private final List<String> list;
+        private final List<String> newList;
+        private final List<String> events = new ArrayList<>();
+
+        private ApplyingListener(List<String> oldList,
+                                 List<String> newList) {
+            list = new ArrayList<>(oldList);
+            this.newList = newList;
+        }
+
+        @Override
+        public void notifyDatasetChanged() {
+            list.clear();
+            list.addAll(newList);
+        }
+
+        @Override
+        public void notifyItemsInserted(int firstIndex,
+                                        int lastIndex) {
+            events.add("inserted " + firstIndex + "-" + lastIndex);
+            for (int i = firstIndex; i <= lastIndex; i++) {
+                list.add(i, newList.get(i));
+            }
+        }
+
+        @Override
+        public void notifyItemsUpdated(int firstIndex,
+                                       int lastIndex) {
+            events.add("updated " + firstIndex + "-" + lastIndex);
+            for (int i = firstIndex; i <= lastIndex; i++) {
+                list.set(i, newList.get(i));
+            }
+        }
+
+        @Override
+        public void notifyItemUpdated(int index) {
+            events.add("updated " + index);
+            list.set(index, newList.get(index));
+        }
+
+        @Override
+        public void notifyItemsDeleted(int firstIndex,
+                                       int lastIndex) {
+            events.add("deleted " + firstIndex + "-" + lastIndex);
+            list.subList(firstIndex, lastIndex + 1).clear();
+        }
+
+        @Override
+        public void notifyItemsMoved(int fromIndex,
+                                     int toIndex,
+                                     int itemCount) {
+            events.add("moved " + fromIndex + "-" + (fromIndex + itemCount - 1) + " to " + toIndex);
+            var moved = new ArrayList<>(list.subList(fromIndex, fromIndex + itemCount));
+            list.subList(fromIndex, fromIndex + itemCount).clear();
+            list.addAll(toIndex, moved);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package genericlistview;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A name is held by one list view at a time, and is released to the MBean
+ * server when the list view unregisters.
+ */
+public class ListViewMetricsTest {
+
+    // region constants ---------------------------------------------------------------------------
+    private static final String NAME = "ListViewMetricsTest";
+    // endregion constants ------------------------------------------------------------------------
+
+    @Test
+    @DisplayName("register: a name in use is refused until it is unregistered")
+    public void nameIsReleasedOnUnregister() {
+        // Arrange
+        var first = new ListViewMetrics(new RecycledViewPool<>());
+        var SUT = new ListViewMetrics(new RecycledViewPool<>());
+        first.register(NAME);
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> SUT.register(NAME));
+        first.unregister();
+        SUT.register(NAME);
+        var objectName = SUT.getObjectName();
+        SUT.unregister();
+
+        // Assert
+        assertNull(first.getObjectName());
+        assertNotNull(objectName);
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+    }
+}
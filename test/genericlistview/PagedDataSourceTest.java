@@ -0,0 +1,170 @@
+package genericlistview;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages are loaded on the executor and delivered on the event dispatch
+ * thread, evicted least recently used first, dropped if the data source was
+ * reset while they were in flight, and requested again if they failed.
+ */
+public class PagedDataSourceTest {
+
+    // region constants ---------------------------------------------------------------------------
+    private static final int PAGE_SIZE = 10;
+    private static final int ITEM_COUNT = 25;
+    // endregion constants ------------------------------------------------------------------------
+
+    // region helper fields ------------------------------------------------------------------------
+    private final List<Runnable> pendingLoads = new ArrayList<>();
+    private final List<Integer> requestedOffsets = new ArrayList<>();
+    private RecordingModelListener listener;
+    private boolean isLoaderFailing;
+    // endregion helper fields ---------------------------------------------------------------------
+
+    private PagedDataSource.Builder<Integer> builder;
+
+    @BeforeEach
+    public void setup() {
+        listener = new RecordingModelListener();
+        builder = new PagedDataSource.Builder<Integer>((offset, count) -> {
+            requestedOffsets.add(offset);
+            if (isLoaderFailing) {
+                throw new IOException("page unavailable");
+            }
+            return IntStream.range(offset, offset + count).boxed().collect(Collectors.toList());
+        })
+                .setItemCount(ITEM_COUNT)
+                .setPageSize(PAGE_SIZE)
+                // pages are loaded when the test runs them
+                .setExecutor(pendingLoads::add);
+    }
+
+    @Test
+    @DisplayName("get: a row is null until its page arrives, then its rows are updated")
+    public void pageIsLoadedOnFirstGet() throws Exception {
+        // Arrange
+        var SUT = build(builder);
+
+        // Act
+        Integer beforeLoad = onEdt(() -> SUT.get(12));
+        loadPendingPages();
+        Integer afterLoad = onEdt(() -> SUT.get(12));
+
+        // Assert
+        assertNull(beforeLoad);
+        assertEquals(Integer.valueOf(12), afterLoad);
+        assertEquals(List.of(10), requestedOffsets);
+        assertEquals(List.of("updated 10-19"), listener.events);
+    }
+
+    @Test
+    @DisplayName("get: the least recently used page is evicted once over budget")
+    public void leastRecentlyUsedPageIsEvicted() throws Exception {
+        // Arrange
+        var SUT = build(builder
+                .setSizeEstimator(item -> 1)
+                .setMemoryBudget(2 * PAGE_SIZE));
+
+        // Act
+        onEdt(() -> SUT.get(0));
+        onEdt(() -> SUT.get(10));
+        loadPendingPages();
+        // page 0 is now the most recently used
+        onEdt(() -> SUT.get(0));
+        onEdt(() -> SUT.get(20));
+        loadPendingPages();
+
+        // Assert
+        assertTrue(SUT.isLoaded(0));
+        assertFalse(SUT.isLoaded(10));
+        assertTrue(SUT.isLoaded(20));
+        assertEquals(2, SUT.getLoadedPageCount());
+        assertEquals(15, SUT.getMemoryUsed());
+    }
+
+    @Test
+    @DisplayName("reset: a page requested before the reset is dropped when it arrives")
+    public void pageInFlightIsDroppedOnReset() throws Exception {
+        // Arrange
+        var SUT = build(builder);
+        onEdt(() -> SUT.get(0));
+
+        // Act
+        onEdt(() -> {
+            SUT.reset(5);
+            return null;
+        });
+        loadPendingPages();
+        int loadedPageCount = SUT.getLoadedPageCount();
+        Integer afterReset = onEdt(() -> SUT.get(0));
+        loadPendingPages();
+
+        // Assert
+        assertEquals(0, loadedPageCount);
+        assertNull(afterReset);
+        // the page is requested again, at the new item count
+        assertEquals(List.of(0, 0), requestedOffsets);
+        assertEquals(List.of("datasetChanged", "updated 0-4"), listener.events);
+    }
+
+    @Test
+    @DisplayName("get: a page that failed to load is requested again")
+    public void failedPageIsRequestedAgain() throws Exception {
+        // Arrange
+        var SUT = build(builder);
+        isLoaderFailing = true;
+        onEdt(() -> SUT.get(0));
+        loadPendingPages();
+
+        // Act
+        isLoaderFailing = false;
+        Integer afterFailure = onEdt(() -> SUT.get(0));
+        loadPendingPages();
+        Integer afterRetry = onEdt(() -> SUT.get(0));
+
+        // Assert
+        assertNull(afterFailure);
+        assertEquals(Integer.valueOf(0), afterRetry);
+        assertEquals(List.of(0, 0), requestedOffsets);
+        assertEquals(List.of("updated 0-9"), listener.events);
+    }
+
+    private PagedDataSource<Integer> build(PagedDataSource.Builder<Integer> builder) {
+        var dataSource = builder.build();
+        dataSource.addModelListener(listener);
+        return dataSource;
+    }
+
+    // runs the loads on this thread, then waits for their pages to be
+    // delivered on the event dispatch thread
+    private void loadPendingPages() throws Exception {
+        var loads = new ArrayList<>(pendingLoads);
+        pendingLoads.clear();
+        loads.forEach(Runnable::run);
+        SwingUtilities.invokeAndWait(() -> {});
+    }
+
+    private static <T> T onEdt(Callable<T> call) throws Exception {
+        var result = new ArrayList<T>(1);
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result.add(call.call());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return result.get(0);
+    }
+}
@@ -0,0 +1,150 @@
+package genericlistview;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The prefix sum index backs the row height cache of the generic list view,
+ * turning row to y and y to row lookups into O(log n) operations.
+ */
+public class PrefixSumIndexTest {
+
+    // region constants ----------------------------------------------------------------------------
+    private static final int ROW_COUNT = 10;
+    private static final long ROW_HEIGHT = 20;
+    // endregion constants -------------------------------------------------------------------------
+
+    private PrefixSumIndex SUT;
+
+    @BeforeEach
+    public void setup() {
+        SUT = new PrefixSumIndex(ROW_COUNT, ROW_HEIGHT);
+    }
+
+    @Test
+    @DisplayName("prefixSum: uniform values")
+    public void prefixSumUniformValues() {
+        // Assert
+        assertEquals(0, SUT.prefixSum(0));
+        assertEquals(ROW_HEIGHT * 3, SUT.prefixSum(3));
+        assertEquals(ROW_HEIGHT * ROW_COUNT, SUT.total());
+    }
+
+    @Test
+    @DisplayName("set: only the following prefix sums change")
+    public void setChangesFollowingPrefixSums() {
+        // Arrange
+        long tallRow = 100;
+
+        // Act
+        SUT.set(4, tallRow);
+
+        // Assert
+        assertEquals(ROW_HEIGHT * 4, SUT.prefixSum(4));
+        assertEquals(ROW_HEIGHT * 4 + tallRow, SUT.prefixSum(5));
+        assertEquals(ROW_HEIGHT * (ROW_COUNT - 1) + tallRow, SUT.total());
+    }
+
+    @Test
+    @DisplayName("indexOf: finds the index containing the offset")
+    public void indexOfFindsContainingIndex() {
+        // Arrange
+        SUT.set(2, 100);
+
+        // Act, Assert
+        assertEquals(0, SUT.indexOf(0));
+        assertEquals(0, SUT.indexOf(ROW_HEIGHT - 1));
+        assertEquals(1, SUT.indexOf(ROW_HEIGHT));
+        assertEquals(2, SUT.indexOf(ROW_HEIGHT * 2 + 99));
+        assertEquals(3, SUT.indexOf(ROW_HEIGHT * 2 + 100));
+        assertEquals(ROW_COUNT, SUT.indexOf(SUT.total()));
+    }
+
+    @Test
+    @DisplayName("indexOf: skips zero values")
+    public void indexOfSkipsZeroValues() {
+        // Arrange
+        SUT.set(1, 0);
+
+        // Act
+        int index = SUT.indexOf(ROW_HEIGHT);
+
+        // Assert
+        assertEquals(2, index);
+    }
+
+    @Test
+    @DisplayName("insert and remove: values after the index are shifted")
+    public void insertAndRemoveShiftValues() {
+        // Arrange
+        SUT.set(5, 50);
+
+        // Act
+        SUT.insert(2, 3, 7);
+
+        // Assert
+        assertEquals(ROW_COUNT + 3, SUT.size());
+        assertEquals(7, SUT.get(3));
+        assertEquals(50, SUT.get(8));
+        assertEquals(ROW_HEIGHT * 2 + 21, SUT.prefixSum(5));
+
+        // Act
+        SUT.remove(2, 3);
+
+        // Assert
+        assertEquals(ROW_COUNT, SUT.size());
+        assertEquals(50, SUT.get(5));
+        assertEquals(ROW_HEIGHT * (ROW_COUNT - 1) + 50, SUT.total());
+    }
+
+    @Test
+    @DisplayName("move: values move and only the window's prefix sums change")
+    public void moveShiftsWindow() {
+        // Arrange
+        SUT.set(6, 60);
+        SUT.set(7, 70);
+
+        // Act
+        SUT.move(6, 1, 2);
+
+        // Assert
+        assertEquals(60, SUT.get(1));
+        assertEquals(70, SUT.get(2));
+        assertEquals(ROW_HEIGHT, SUT.get(7));
+        assertEquals(ROW_HEIGHT + 130, SUT.prefixSum(3));
+        assertEquals(ROW_HEIGHT * 6 + 130, SUT.prefixSum(8));
+
+        // Act
+        SUT.move(1, 6, 2);
+
+        // Assert
+        assertEquals(60, SUT.get(6));
+        assertEquals(ROW_HEIGHT * 6, SUT.prefixSum(6));
+    }
+
+    @Test
+    @DisplayName("insert: grows beyond the initial capacity")
+    public void insertGrowsCapacity() {
+        // Arrange
+        SUT = new PrefixSumIndex();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            SUT.insert(SUT.size(), 1, i);
+        }
+
+        // Assert
+        assertEquals(100, SUT.size());
+        assertEquals(99 * 100 / 2, SUT.total());
+        assertEquals(50, SUT.indexOf(50 * 49 / 2));
+    }
+
+    @Test
+    @DisplayName("set: negative values are rejected")
+    public void setRejectsNegativeValues() {
+        assertThrows(IllegalArgumentException.class, () -> SUT.set(0, -1));
+    }
+}
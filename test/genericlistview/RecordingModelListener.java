@@ -0,0 +1,68 @@
+package genericlistview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records each notification it is sent as a short string, such as
+ * <code>"inserted 3-4"</code>, so a test can compare them with a list. A
+ * batch is recorded as <code>"batch"</code> followed by the changes it
+ * replays.
+ */
+public class RecordingModelListener
+        implements ModelListener {
+
+    public final List<String> events = new ArrayList<>();
+
+    @Override
+    public void notifyDatasetChanged() {
+        events.add("datasetChanged");
+    }
+
+    @Override
+    public void notifyDataStructureChanged() {
+        events.add("structureChanged");
+    }
+
+    @Override
+    public void notifyItemsInserted(int firstIndex,
+                                    int lastIndex) {
+        events.add("inserted " + firstIndex + "-" + lastIndex);
+    }
+
+    @Override
+    public void notifyItemsUpdated(int firstIndex,
+                                   int lastIndex) {
+        events.add("updated " + firstIndex + "-" + lastIndex);
+    }
+
+    @Override
+    public void notifyItemUpdated(int index) {
+        events.add("updated " + index);
+    }
+
+    @Override
+    public void notifyItemUpdated(int index,
+                                  Object payload) {
+        events.add(payload == null ? "updated " + index : "updated " + index + " " + payload);
+    }
+
+    @Override
+    public void notifyItemsDeleted(int firstIndex,
+                                   int lastIndex) {
+        events.add("deleted " + firstIndex + "-" + lastIndex);
+    }
+
+    @Override
+    public void notifyItemsMoved(int fromIndex,
+                                 int toIndex,
+                                 int itemCount) {
+        events.add("moved " + fromIndex + "-" + (fromIndex + itemCount - 1) + " to " + toIndex);
+    }
+
+    @Override
+    public void notifyChanges(ChangeSet changes) {
+        events.add("batch");
+        changes.dispatchTo(this);
+    }
+}
@@ -0,0 +1,62 @@
+package genericlistview;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lists too tall for int pixel coordinates are scrolled by logical row
+ * position, so every row can still be scrolled to exactly.
+ */
+public class ScrollGeometryTest {
+
+    // region constants ----------------------------------------------------------------------------
+    private static final int ROW_HEIGHT = 100;
+    private static final int MAX_SCROLL_RANGE = 1000;
+    // endregion constants -------------------------------------------------------------------------
+
+    private RowHeightIndex rowHeights;
+    private ScrollGeometry SUT;
+
+    @BeforeEach
+    public void setup() {
+        rowHeights = new RowHeightIndex(ROW_HEIGHT);
+        SUT = new ScrollGeometry(rowHeights, MAX_SCROLL_RANGE);
+    }
+
+    @Test
+    @DisplayName("toContentY: scroll positions are pixel offsets within the range")
+    public void unscaledPositionsArePixels() {
+        // Arrange
+        rowHeights.insertRows(0, 9);
+
+        // Act
+        long y = SUT.toContentY(250, 0);
+
+        // Assert
+        assertFalse(SUT.isScaled());
+        assertEquals(250, y);
+        assertEquals(300, SUT.getScrollValue(3));
+    }
+
+    @Test
+    @DisplayName("getScrollValue: every row of a scaled list maps to its own position")
+    public void scaledRowsAreExact() {
+        // Arrange
+        rowHeights.insertRows(0, 99);
+        rowHeights.setRowHeight(40, 3 * ROW_HEIGHT);
+
+        // Act
+        int scrollValue = SUT.getScrollValue(41);
+
+        // Assert
+        assertTrue(SUT.isScaled());
+        assertEquals(10, SUT.getStepsPerRow());
+        assertEquals(410, scrollValue);
+        assertEquals(rowHeights.getRowY(41), SUT.toContentY(scrollValue, 0));
+        assertEquals(scrollValue, SUT.toScrollValue(rowHeights.getRowY(41)));
+        assertEquals(rowHeights.getRowY(40) + 3 * ROW_HEIGHT / 2, SUT.toContentY(405, 0));
+    }
+}
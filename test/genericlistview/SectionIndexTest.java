@@ -0,0 +1,61 @@
+package genericlistview;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The section index finds the section of the top visible row by binary
+ * search, and follows inserts and deletes without rescanning the rows.
+ */
+public class SectionIndexTest {
+
+    private SectionIndex SUT;
+
+    @BeforeEach
+    public void setup() {
+        SUT = new SectionIndex();
+        SUT.setSectionStart(0, true);
+        SUT.setSectionStart(10, true);
+        SUT.setSectionStart(20, true);
+    }
+
+    @Test
+    @DisplayName("getSectionAt: a row is in the section of the nearest start before it")
+    public void sectionAtRow() {
+        // Assert
+        assertEquals(0, SUT.getSectionAt(9));
+        assertEquals(1, SUT.getSectionAt(10));
+        assertEquals(2, SUT.getSectionAt(1_000_000));
+    }
+
+    @Test
+    @DisplayName("setSectionStart: only a change to the starts is reported")
+    public void setSectionStartReportsChange() {
+        // Act
+        boolean isUnchanged = SUT.setSectionStart(10, true);
+        boolean isAdded = SUT.setSectionStart(15, true);
+        boolean isRemoved = SUT.setSectionStart(10, false);
+
+        // Assert
+        assertFalse(isUnchanged);
+        assertTrue(isAdded);
+        assertTrue(isRemoved);
+        assertEquals(3, SUT.getSectionCount());
+    }
+
+    @Test
+    @DisplayName("insertRows, removeRows: starts after the change are shifted")
+    public void startsFollowInsertsAndDeletes() {
+        // Act
+        SUT.insertRows(5, 7);
+        SUT.removeRows(13, 14);
+
+        // Assert
+        assertEquals(2, SUT.getSectionCount());
+        assertEquals(0, SUT.getSectionStart(0));
+        assertEquals(21, SUT.getSectionStart(1));
+    }
+}
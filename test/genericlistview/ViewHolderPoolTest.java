@@ -0,0 +1,175 @@
+package genericlistview;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Holders are reused for the index they are bound to, then taken from the
+ * scrap, then from the least recently used index, and only created while the
+ * pool has spare capacity. Their keys follow the items as rows are inserted,
+ * deleted and moved.
+ */
+public class ViewHolderPoolTest {
+
+    // region constants ---------------------------------------------------------------------------
+    private static final int CAPACITY = 3;
+    // endregion constants ------------------------------------------------------------------------
+
+    // region helper fields ------------------------------------------------------------------------
+    // the index each existing holder was last bound to, in order of binding
+    private final List<String> binds = new ArrayList<>();
+    // endregion helper fields ---------------------------------------------------------------------
+
+    private ViewHolderPool<String> SUT;
+
+    @BeforeEach
+    public void setup() {
+        SUT = new ViewHolderPool<>(CAPACITY);
+    }
+
+    @Test
+    @DisplayName("acquire: a bound index is a hit, a full pool recycles the least recently used holder")
+    public void hitsRecyclesAndMisses() {
+        // Arrange
+        acquire(0);
+        acquire(1);
+        acquire(2);
+
+        // Act
+        String hit = acquire(0);
+        // index 1 is now the least recently used
+        String recycled = acquire(3);
+
+        // Assert
+        assertEquals("holder 0", hit);
+        assertEquals("holder 1", recycled);
+        assertEquals(3, SUT.getMissCount());
+        assertEquals(1, SUT.getHitCount());
+        assertEquals(1, SUT.getRecycleCount());
+        assertEquals(1, SUT.getEvictionCount());
+        assertEquals(List.of("holder 0 to 0", "holder 1 to 3"), binds);
+        assertNull(SUT.peek(1));
+    }
+
+    @Test
+    @DisplayName("acquire: a scrapped holder is reused before a bound holder is evicted")
+    public void scrapIsReusedBeforeEviction() {
+        // Arrange
+        acquire(0);
+        acquire(1);
+        acquire(2);
+        SUT.onItemsDeleted(2, 2);
+
+        // Act
+        String reused = acquire(5);
+
+        // Assert
+        assertEquals("holder 2", reused);
+        assertEquals(0, SUT.getEvictionCount());
+        assertEquals("holder 0", SUT.peek(0));
+        assertEquals("holder 1", SUT.peek(1));
+    }
+
+    @Test
+    @DisplayName("onItemsInserted: holders at and after the insert follow their items")
+    public void keysShiftOnInsert() {
+        // Arrange
+        acquire(0);
+        acquire(1);
+        acquire(2);
+
+        // Act
+        SUT.onItemsInserted(1, 2);
+
+        // Assert
+        assertEquals("holder 0", SUT.peek(0));
+        assertNull(SUT.peek(1));
+        assertNull(SUT.peek(2));
+        assertEquals("holder 1", SUT.peek(3));
+        assertEquals("holder 2", SUT.peek(4));
+    }
+
+    @Test
+    @DisplayName("onItemsDeleted: deleted holders are scrapped, later holders follow their items")
+    public void keysShiftOnDelete() {
+        // Arrange
+        acquire(0);
+        acquire(1);
+        acquire(2);
+
+        // Act
+        SUT.onItemsDeleted(0, 0);
+
+        // Assert
+        assertEquals("holder 1", SUT.peek(0));
+        assertEquals("holder 2", SUT.peek(1));
+        assertNull(SUT.peek(2));
+        assertEquals(CAPACITY, SUT.size());
+    }
+
+    @Test
+    @DisplayName("onItemsMoved: moved holders are still hits at their new indices")
+    public void keysFollowMove() {
+        // Arrange
+        acquire(0);
+        acquire(1);
+        acquire(2);
+
+        // Act
+        SUT.onItemsMoved(0, 2, 1);
+        String moved = acquire(2);
+
+        // Assert
+        assertEquals("holder 0", moved);
+        assertEquals("holder 1", SUT.peek(0));
+        assertEquals("holder 2", SUT.peek(1));
+        assertEquals(1, SUT.getHitCount());
+    }
+
+    @Test
+    @DisplayName("movedIndex: rows between the two indices shift by the count moved")
+    public void movedIndex() {
+        // Assert
+        // three rows moved from 2 down to 5
+        assertEquals(5, ViewHolderPool.movedIndex(2, 2, 5, 3));
+        assertEquals(2, ViewHolderPool.movedIndex(5, 2, 5, 3));
+        assertEquals(1, ViewHolderPool.movedIndex(1, 2, 5, 3));
+        assertEquals(8, ViewHolderPool.movedIndex(8, 2, 5, 3));
+        // and back up again
+        assertEquals(2, ViewHolderPool.movedIndex(5, 5, 2, 3));
+        assertEquals(5, ViewHolderPool.movedIndex(2, 5, 2, 3));
+    }
+
+    @Test
+    @DisplayName("setCapacity: shrinking drops the scrap first, then the least recently used holders")
+    public void shrinkingDropsScrapThenEldest() {
+        // Arrange
+        acquire(0);
+        acquire(1);
+        acquire(2);
+        SUT.onItemsDeleted(2, 2);
+        acquire(0);
+
+        // Act
+        SUT.setCapacity(1);
+
+        // Assert
+        assertEquals(1, SUT.size());
+        assertEquals("holder 0", SUT.peek(0));
+        assertNull(SUT.peek(1));
+        assertEquals(1, SUT.getEvictionCount());
+        assertThrows(IllegalArgumentException.class, () -> SUT.setCapacity(0));
+    }
+
+    private String acquire(int index) {
+        return SUT.acquire(index,
+                i -> "holder " + i,
+                (i, viewHolder) -> binds.add(viewHolder + " to " + i));
+    }
+}